@@ -0,0 +1,88 @@
+package com.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files, e.g. from the base and the head of a change:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.benchmarks.CompareResults base.json head.json [threshold-percent]
+ * </pre>
+ * Prints the change of every benchmark found in both. A benchmark regressed when it got worse by more than the
+ * threshold (10% by default) and by more than the error margins of both runs together. Exits with status 1 if
+ * any benchmark regressed.
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s%n", entry.getKey(), "new");
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double base = score(before);
+            double head = score(after);
+            // Lower is better for times, higher for throughput
+            double worse = "thrpt".equals(after.path("mode").asText()) ? base - head : head - base;
+            double change = base == 0 ? 0 : (head - base) / base * 100;
+            boolean regressed = worse > base * threshold / 100 && worse > error(before) + error(after);
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %12.3f %s -> %12.3f %s %+8.1f%%%s%n", entry.getKey(), base, unit(before),
+                    head, unit(after), change, regressed ? "  REGRESSION" : "");
+        }
+        System.out.printf("%d of %d benchmarks regressed by more than %.1f%%%n", regressions, current.size(), threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Keyed by benchmark name and parameters, e.g. CreateOrderBenchmark.createOrder(lineItems=10)
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            fields.forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            String name = result.path("benchmark").asText().replaceFirst("^.*\\.(\\w+\\.\\w+)$", "$1");
+            results.put(params.isEmpty() ? name : name + params.toString().replace('{', '(').replace('}', ')'), result);
+        }
+        return results;
+    }
+
+    private static double score(JsonNode result) {
+        return result.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static double error(JsonNode result) {
+        // NaN when a run had too few iterations to estimate it
+        double error = result.path("primaryMetric").path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String unit(JsonNode result) {
+        return result.path("primaryMetric").path("scoreUnit").asText();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.Order;
+import com.example.orderservice.service.OrderFixtures;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Writing a {@code List<OrderResponse>} as JSON, as {@code GET /api/orders} does. The object mapper is built
+ * with Spring's defaults, like the one the services use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderResponseSerializationBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int orders;
+
+    private ObjectWriter writer;
+    private List<OrderResponse> orderResponses;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build()
+                .writerFor(new TypeReference<List<OrderResponse>>() {
+                });
+        // Distinct objects, so that the writer walks as much memory as with orders read from MongoDB
+        orderResponses = IntStream.range(0, orders)
+                .mapToObj(i -> {
+                    Order order = OrderFixtures.order(3);
+                    return OrderResponse.builder()
+                            .id(order.getId())
+                            .customerName(order.getCustomerName())
+                            .customerEmail(order.getCustomerEmail())
+                            .orderLineItems(order.getOrderLineItems())
+                            .totalAmount(order.getTotalAmount())
+                            .orderDate(order.getOrderDate())
+                            .orderStatus(order.getOrderStatus())
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] writeOrderResponses() throws JsonProcessingException {
+        return writer.writeValueAsBytes(orderResponses);
+    }
+}
\ No newline at end of file
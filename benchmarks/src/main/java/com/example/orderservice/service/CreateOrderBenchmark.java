@@ -0,0 +1,113 @@
+package com.example.orderservice.service;
+
+import com.example.common.outbox.OutboxProperties;
+import com.example.common.outbox.OutboxRelay;
+import com.example.orderservice.client.ProductLookupProperties;
+import com.example.orderservice.client.ProductReplica;
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.outbox.Outbox;
+import com.example.orderservice.repository.OrderRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link OrderService#createOrder} with product-service and MongoDB answering at once: the stock reservation
+ * returns the products straight away and writes return without I/O. What remains is the service's own work,
+ * pricing the order, mapping it and recording its change event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateOrderBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int lineItems;
+
+    private OrderService orderService;
+    private OrderRequest orderRequest;
+
+    @Setup
+    public void setUp() {
+        orderRequest = OrderFixtures.orderRequest(lineItems);
+        Map<String, ProductDto> products = OrderFixtures.products(lineItems);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductReplica productReplica = new ProductReplica(meterRegistry, 100);
+
+        ProductServiceClient productServiceClient = new ProductServiceClient(WebClient.create(), productReplica,
+                CircuitBreaker.ofDefaults("product-service"), Bulkhead.ofDefaults("product-service"),
+                new ProductLookupProperties(), meterRegistry) {
+            @Override
+            public Mono<Map<String, ProductDto>> reserveStock(String reservationId, List<OrderLineItemDto> items) {
+                return Mono.just(products);
+            }
+        };
+        MongoDatabaseFactory databaseFactory = mock(MongoDatabaseFactory.class);
+        when(databaseFactory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+        MongoTemplate mongoTemplate = new MongoTemplate(databaseFactory) {
+            @Override
+            public <T> Collection<T> insert(Collection<? extends T> batchToSave, Class<?> entityClass) {
+                return new ArrayList<>(batchToSave);
+            }
+        };
+        Outbox outbox = new Outbox(mongoTemplate, null,
+                new OutboxRelay<>(mongoTemplate, OutboxEvent.class, event -> { }, new OutboxProperties(), meterRegistry));
+
+        orderService = new OrderService(savingRepository(), productServiceClient, productReplica,
+                mock(OrderQueueProcessor.class), outbox, new OrderStageTimers(meterRegistry));
+    }
+
+    // Mockito stubs are avoided on the measured path: every call to one walks the stack
+    private static OrderRepository savingRepository() {
+        return (OrderRepository) Proxy.newProxyInstance(OrderRepository.class.getClassLoader(),
+                new Class<?>[]{OrderRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("save")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    Order order = (Order) args[0];
+                    order.setId("6650f1a2c3d4e5f6a7b8c9d0");
+                    return order;
+                });
+    }
+
+    @Benchmark
+    public OrderResponse createOrder() {
+        return orderService.createOrder(orderRequest);
+    }
+}
\ No newline at end of file
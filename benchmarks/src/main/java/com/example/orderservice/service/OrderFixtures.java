@@ -0,0 +1,56 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Orders shaped like the ones order-service handles, for the benchmarks.
+ */
+public final class OrderFixtures {
+
+    private OrderFixtures() {
+    }
+
+    public static OrderRequest orderRequest(int lineItems) {
+        List<OrderLineItemDto> items = IntStream.range(0, lineItems)
+                .mapToObj(i -> new OrderLineItemDto(productId(i), 1 + i % 5))
+                .collect(Collectors.toList());
+        return OrderRequest.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .orderLineItems(items)
+                .build();
+    }
+
+    public static Map<String, ProductDto> products(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> ProductDto.builder()
+                        .id(productId(i))
+                        .name("Product " + i)
+                        .description("Description of product " + i)
+                        // Prices with cents, as most catalogue prices have
+                        .price(new Money(1999 + i, Money.DEFAULT_CURRENCY))
+                        .stock(1000)
+                        .build())
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+    }
+
+    public static Order order(int lineItems) {
+        Order order = OrderService.buildOrder(orderRequest(lineItems), products(lineItems));
+        order.setId("6650f1a2c3d4e5f6a7b8c9d0");
+        return order;
+    }
+
+    private static String productId(int i) {
+        return String.format("6650f1a2c3d4e5f6a7b8%04x", i);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderLineItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic behind an order's total: {@code bigDecimalTotal} is the multiply-and-add loop over
+ * {@code BigDecimal} prices that {@link OrderService#buildOrder} ran before prices became {@link Money},
+ * {@code minorUnitsTotal} its replacement over {@code long} minor units, and {@code buildOrder} the whole pricing
+ * step around it. Run with {@code -prof gc} to compare the bytes allocated per operation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int lineItems;
+
+    private OrderRequest orderRequest;
+    private Map<String, ProductDto> products;
+    private List<OrderLineItem> orderLineItems;
+    private BigDecimal[] bigDecimalPrices;
+
+    @Setup
+    public void setUp() {
+        orderRequest = OrderFixtures.orderRequest(lineItems);
+        products = OrderFixtures.products(lineItems);
+        orderLineItems = OrderFixtures.order(lineItems).getOrderLineItems();
+        bigDecimalPrices = orderLineItems.stream()
+                .map(item -> item.getPrice().toBigDecimal())
+                .toArray(BigDecimal[]::new);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (int i = 0; i < bigDecimalPrices.length; i++) {
+            BigDecimal quantity = BigDecimal.valueOf(orderLineItems.get(i).getQuantity());
+            totalAmount = totalAmount.add(bigDecimalPrices[i].multiply(quantity));
+        }
+        return totalAmount;
+    }
+
+    @Benchmark
+    public Money minorUnitsTotal() {
+        long totalMinorUnits = 0;
+        for (OrderLineItem item : orderLineItems) {
+            totalMinorUnits = Math.addExact(totalMinorUnits,
+                    Math.multiplyExact(item.getPrice().minorUnits(), item.getQuantity()));
+        }
+        return new Money(totalMinorUnits, Money.DEFAULT_CURRENCY);
+    }
+
+    @Benchmark
+    public Order buildOrder() {
+        return OrderService.buildOrder(orderRequest, products);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.model.Money;
+import com.example.productservice.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductService#mapToProductResponse}, which every product endpoint, cache load and change event runs
+ * once per product.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        product = Product.builder()
+                .id("6650f1a2c3d4e5f6a7b8c9d0")
+                .name("Product 1")
+                .description("Description of product 1")
+                .price(Money.of(new BigDecimal("19.99")))
+                .stock(1000)
+                .build();
+    }
+
+    @Benchmark
+    public ProductResponse mapToProductResponse() {
+        return ProductService.mapToProductResponse(product);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.common.outbox;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+/**
+ * Change event recording and publishing, bound from {@code outbox.*} by each service's {@code OutboxConfig}.
+ */
+@Data
+public class OutboxProperties {
+
+    /**
+     * Write each change and its event in one MongoDB transaction. Needs a replica set; without it the event
+     * is written right after the change and is lost if the service dies in between.
+     */
+    private boolean transactional = true;
+
+    private Relay relay = new Relay();
+
+    /** Events a slow change stream subscriber may fall behind by before it is disconnected. */
+    private int maxBufferedEvents = 1000;
+
+    /** How often each instance reads the events the relay published, on whichever instance it runs. */
+    private Duration tailInterval = Duration.ofMillis(200);
+
+    @Data
+    public static class Relay {
+        /** Publish events from this instance while it holds the relay lease; only one instance does at a time. */
+        private boolean enabled = true;
+        private Duration pollInterval = Duration.ofMillis(200);
+        private int batchSize = 100;
+        /** How long the relay lease lasts without being renewed before another instance takes over. */
+        private Duration lease = Duration.ofSeconds(10);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,199 @@
+package com.example.common.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes recorded change events to the {@link OutboxSink} in the order they were recorded, numbering
+ * them with consecutive sequence numbers as it goes. An event is marked published only after the sink took
+ * it, so an event whose publication failed, or whose relay died half-way, is published again with the same
+ * sequence number. Only the instance holding the relay lease in the {@code outbox_relay} collection
+ * publishes; another one takes over once the lease runs out. Events are the service's {@code E} documents, read
+ * from and marked in the collection that class is mapped to.
+ */
+@Slf4j
+public class OutboxRelay<E extends PublishableEvent> implements SmartLifecycle {
+
+    static final String LEASE_COLLECTION = "outbox_relay";
+    private static final String LEASE_ID = "relay";
+
+    private final MongoTemplate mongoTemplate;
+    private final Class<E> eventClass;
+    private final OutboxSink<E> sink;
+    private final OutboxProperties.Relay properties;
+    private final Timer lag;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Lets the relay publish a new event without waiting for the next poll
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    // Only touched by the relay thread. Null while another instance may hold the lease.
+    private Instant leaseUntil;
+    private long nextSequence;
+
+    public OutboxRelay(MongoTemplate mongoTemplate,
+                       Class<E> eventClass,
+                       OutboxSink<E> sink,
+                       OutboxProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventClass = eventClass;
+        this.sink = sink;
+        this.properties = properties.getRelay();
+        this.lag = Timer.builder("outbox.publish.lag")
+                .description("Time from recording a change event until it is published")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", this, OutboxRelay::pending)
+                .description("Change events waiting to be published")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Called after events were recorded.
+     */
+    public void signal() {
+        if (running && wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("outbox-relay-"));
+        executor.execute(this::relay);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Hands the lease over right away instead of letting the other instances wait for it to run out
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(LEASE_ID).and("owner").is(instanceId)),
+                    LEASE_COLLECTION);
+        } catch (RuntimeException e) {
+            log.warn("Could not release the outbox relay lease: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void relay() {
+        while (running) {
+            try {
+                if (publishBatch() == 0) {
+                    wakeUps.tryAcquire(properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Publishing change events failed, retrying: {}", e.getMessage());
+                // Re-reads the last published sequence number before going on
+                leaseUntil = null;
+                try {
+                    Thread.sleep(properties.getPollInterval().toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes the oldest unpublished events. Returns how many were published, 0 if there were none or
+     * another instance holds the lease.
+     */
+    int publishBatch() {
+        if (!holdLease()) {
+            return 0;
+        }
+        Query unpublished = Query.query(Criteria.where("publishedAt").is(null))
+                .with(Sort.by("id"))
+                .limit(properties.getBatchSize());
+        List<E> events = mongoTemplate.find(unpublished, eventClass);
+        for (E event : events) {
+            event.setSequence(nextSequence);
+            sink.publish(event);
+            Instant publishedAt = Instant.now();
+            mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(event.getId())),
+                    new Update().set("sequence", nextSequence).set("publishedAt", publishedAt), eventClass);
+            lag.record(Duration.between(event.getOccurredAt(), publishedAt));
+            nextSequence++;
+        }
+        return events.size();
+    }
+
+    private boolean holdLease() {
+        Instant now = Instant.now();
+        if (leaseUntil != null && now.isBefore(leaseUntil.minus(properties.getLease().dividedBy(2)))) {
+            return true;
+        }
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(instanceId), Criteria.where("leaseUntil").lt(now)));
+        try {
+            // Inserts the lease document if there is none; fails on the _id index while another instance holds it
+            mongoTemplate.upsert(query, new Update().set("owner", instanceId).set("leaseUntil", now.plus(properties.getLease())),
+                    LEASE_COLLECTION);
+        } catch (DuplicateKeyException e) {
+            leaseUntil = null;
+            return false;
+        }
+        if (leaseUntil == null) {
+            nextSequence = lastSequence() + 1;
+            log.info("Publishing change events from sequence {}", nextSequence);
+        }
+        leaseUntil = now.plus(properties.getLease());
+        return true;
+    }
+
+    private long lastSequence() {
+        Query last = Query.query(Criteria.where("sequence").exists(true))
+                .with(Sort.by(Sort.Direction.DESC, "sequence"))
+                .limit(1);
+        last.fields().include("sequence");
+        E event = mongoTemplate.findOne(last, eventClass);
+        return event == null ? 0 : event.getSequence();
+    }
+
+    private double pending() {
+        return mongoTemplate.count(Query.query(Criteria.where("publishedAt").is(null)), eventClass);
+    }
+}
\ No newline at end of file
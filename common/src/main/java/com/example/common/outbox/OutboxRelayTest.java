@@ -0,0 +1,106 @@
+package com.example.common.outbox;
+
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final List<Long> published = new ArrayList<>();
+
+    private OutboxRelay<Event> relay;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class Event implements PublishableEvent {
+        private String id;
+        private Long sequence;
+        private Instant occurredAt;
+    }
+
+    @BeforeEach
+    void setUp() {
+        OutboxSink<Event> sink = event -> {
+            if (event.getId().equals("broken")) {
+                throw new IllegalStateException("Sink unavailable");
+            }
+            published.add(event.getSequence());
+        };
+        relay = new OutboxRelay<>(mongoTemplate, Event.class, sink, new OutboxProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldPublishEventsInOrderAfterTheLastPublishedSequence() {
+        holdLease();
+        when(mongoTemplate.findOne(any(Query.class), eq(Event.class))).thenReturn(new Event(null, 7L, null));
+        when(mongoTemplate.find(any(Query.class), eq(Event.class))).thenReturn(List.of(event("a"), event("b")));
+
+        assertEquals(2, relay.publishBatch());
+
+        assertEquals(List.of(8L, 9L), published);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq(Event.class));
+        Document marked = updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class);
+        assertEquals(9L, marked.get("sequence"));
+        assertNotNull(marked.get("publishedAt"));
+    }
+
+    @Test
+    void shouldLeaveEventsTheSinkRejectedUnpublished() {
+        holdLease();
+        when(mongoTemplate.find(any(Query.class), eq(Event.class)))
+                .thenReturn(List.of(event("a"), event("broken"), event("c")));
+
+        assertThrows(IllegalStateException.class, () -> relay.publishBatch());
+
+        assertEquals(List.of(1L), published);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(Event.class));
+    }
+
+    @Test
+    void shouldNotPublishWhileAnotherInstanceHoldsTheLease() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(OutboxRelay.LEASE_COLLECTION)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        assertEquals(0, relay.publishBatch());
+
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Event.class));
+    }
+
+    private void holdLease() {
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), anyString()))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    private static Event event(String id) {
+        return new Event(id, null, Instant.now());
+    }
+}
\ No newline at end of file
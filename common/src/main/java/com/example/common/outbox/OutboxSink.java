@@ -0,0 +1,11 @@
+package com.example.common.outbox;
+
+/**
+ * Where {@link OutboxRelay} publishes change events to. Events arrive one at a time in sequence order.
+ * An event is only marked published once this returns, so throwing makes the relay publish it again later:
+ * a sink sees every event at least once and has to tolerate duplicates.
+ */
+public interface OutboxSink<E extends PublishableEvent> {
+
+    void publish(E event);
+}
@@ -0,0 +1,19 @@
+package com.example.common.outbox;
+
+import java.time.Instant;
+
+/**
+ * What {@link OutboxRelay} needs of a service's outbox event document: its id, when it was recorded, and the
+ * sequence number the relay assigns when publishing it. The document also has a {@code publishedAt} field, which
+ * the relay sets.
+ */
+public interface PublishableEvent {
+
+    String getId();
+
+    Long getSequence();
+
+    void setSequence(Long sequence);
+
+    Instant getOccurredAt();
+}
@@ -0,0 +1,203 @@
+package com.example.common.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Hands published events to the server-sent event subscribers of this instance, i.e. of
+ * {@code GET /api/products/changes} or {@code GET /api/orders/events}. A subscriber that reconnects with the last
+ * sequence number it saw first gets the stored events it missed.
+ * <p>
+ * The relay only runs on the instance holding its lease, so every instance tails the stored events by sequence
+ * number every {@code outbox.tail-interval} to serve its own subscribers. On the instance running the relay, events
+ * are also handed over by the relay as it publishes them, so that they do not wait for the next read.
+ */
+@Slf4j
+public class ServerSentEventSink<E extends PublishableEvent> implements OutboxSink<E>, SmartLifecycle {
+
+    private final MongoTemplate mongoTemplate;
+    private final Class<E> eventClass;
+    private final int maxBufferedEvents;
+    private final OutboxProperties properties;
+    private final Sinks.Many<E> published = Sinks.many().multicast().directBestEffort();
+
+    // Sequence number of the last event handed to the subscribers; null until it is known
+    private Long lastEmitted;
+
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public ServerSentEventSink(MongoTemplate mongoTemplate, Class<E> eventClass, OutboxProperties properties) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventClass = eventClass;
+        this.maxBufferedEvents = properties.getMaxBufferedEvents();
+        this.properties = properties;
+    }
+
+    @Override
+    public synchronized void publish(E event) {
+        // Anything but the next event is left to tailBatch(), which reads the events in between in order; the relay
+        // publishes an event before storing its sequence number, so the stored one has not been read yet
+        if (lastEmitted == null || event.getSequence() == lastEmitted + 1) {
+            emit(event);
+        }
+    }
+
+    /**
+     * Events published from now on, preceded by the stored events after {@code lastSequence} if it is given.
+     * A subscriber that falls more than {@code outbox.max-buffered-events} behind gets an error and is
+     * expected to reconnect from where it stopped.
+     */
+    public Flux<E> events(Long lastSequence) {
+        return replay(lastSequence).flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Like {@link #events(Long)}, with each event mapped and {@code caughtUp} in between the stored events and the
+     * published ones, so that a subscriber can tell when it has caught up.
+     */
+    public <T> Flux<T> events(Long lastSequence, Function<? super E, T> mapper, T caughtUp) {
+        return replay(lastSequence).map(event -> event.<T>map(mapper).orElse(caughtUp));
+    }
+
+    // Empty marks the end of the stored events
+    private Flux<Optional<E>> replay(Long lastSequence) {
+        return Flux.defer(() -> {
+            Flux<Optional<E>> stored = lastSequence == null
+                    ? Flux.empty()
+                    : Flux.fromStream(() -> storedAfter(lastSequence))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .map(Optional::of);
+            Flux<Optional<E>> live = published.asFlux().onBackpressureBuffer(maxBufferedEvents).map(Optional::of);
+            AtomicLong last = new AtomicLong(lastSequence == null ? Long.MIN_VALUE : lastSequence);
+            // Both are subscribed to at once, so events published while the stored ones are read are buffered
+            // rather than missed. Those read twice, and events the relay published again, are dropped.
+            return Flux.mergeSequential(stored.concatWith(Mono.just(Optional.empty())), live)
+                    .filter(event -> event.isEmpty() || event.get().getSequence() > last.get())
+                    .doOnNext(event -> event.ifPresent(published -> last.set(published.getSequence())));
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("outbox-tail-"));
+        executor.execute(this::tail);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void tail() {
+        while (running) {
+            try {
+                if (tailBatch() < properties.getRelay().getBatchSize()) {
+                    Thread.sleep(properties.getTailInterval().toMillis());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Reading published change events failed, retrying: {}", e.getMessage());
+                try {
+                    Thread.sleep(properties.getTailInterval().toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands the stored events published after the last one handed over to the subscribers, whichever instance
+     * published them. Returns how many were read. The first call only looks up where to start, so that
+     * subscribers without a last sequence number only get events published from then on.
+     */
+    int tailBatch() {
+        Long after = lastEmitted();
+        if (after == null) {
+            startAfter(lastSequence());
+            return 0;
+        }
+        Query query = Query.query(Criteria.where("sequence").gt(after))
+                .with(Sort.by("sequence"))
+                .limit(properties.getRelay().getBatchSize());
+        List<E> events = mongoTemplate.find(query, eventClass);
+        for (E event : events) {
+            emitStored(event);
+        }
+        return events.size();
+    }
+
+    private synchronized Long lastEmitted() {
+        return lastEmitted;
+    }
+
+    private synchronized void startAfter(long sequence) {
+        if (lastEmitted == null) {
+            lastEmitted = sequence;
+        }
+    }
+
+    private synchronized void emitStored(E event) {
+        if (lastEmitted == null || event.getSequence() > lastEmitted) {
+            emit(event);
+        }
+    }
+
+    // Callers hold the lock, which also keeps the relay and the tail thread from emitting at the same time
+    private void emit(E event) {
+        lastEmitted = event.getSequence();
+        // Only fails when nobody is subscribed; subscribers catch up from the stored events when they connect
+        published.tryEmitNext(event);
+    }
+
+    private long lastSequence() {
+        Query last = Query.query(Criteria.where("sequence").exists(true))
+                .with(Sort.by(Sort.Direction.DESC, "sequence"))
+                .limit(1);
+        last.fields().include("sequence");
+        E event = mongoTemplate.findOne(last, eventClass);
+        return event == null ? 0 : event.getSequence();
+    }
+
+    private Stream<E> storedAfter(long sequence) {
+        Query query = Query.query(Criteria.where("sequence").gt(sequence))
+                .with(Sort.by("sequence"))
+                .cursorBatchSize(500);
+        return mongoTemplate.stream(query, eventClass);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.common.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ServerSentEventSinkTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    private final ServerSentEventSink<OutboxRelayTest.Event> sink =
+            new ServerSentEventSink<>(mongoTemplate, OutboxRelayTest.Event.class, new OutboxProperties());
+
+    @Test
+    void shouldReplayStoredEventsBeforePublishedOnesWithoutDuplicates() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(OutboxRelayTest.Event.class))).thenReturn(Stream.of(event(5), event(6)));
+
+        CompletableFuture<List<Long>> received = sink.events(4L)
+                .map(OutboxRelayTest.Event::getSequence)
+                .take(3)
+                .collectList()
+                .toFuture();
+        sink.publish(event(6));
+        sink.publish(event(7));
+
+        assertEquals(List.of(5L, 6L, 7L), received.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldMarkWhereStoredEventsEnd() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(OutboxRelayTest.Event.class))).thenReturn(Stream.of(event(5), event(6)));
+
+        CompletableFuture<List<String>> received = sink.events(4L, event -> String.valueOf(event.getSequence()), "caught-up")
+                .take(4)
+                .collectList()
+                .toFuture();
+        sink.publish(event(6));
+        sink.publish(event(7));
+
+        assertEquals(List.of("5", "6", "caught-up", "7"), received.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldOnlyPublishNewEventsWithoutALastEventId() throws Exception {
+        CompletableFuture<List<Long>> received = sink.events(null)
+                .map(OutboxRelayTest.Event::getSequence)
+                .take(2)
+                .collectList()
+                .toFuture();
+        sink.publish(event(1));
+        sink.publish(event(1));
+        sink.publish(event(2));
+
+        assertEquals(List.of(1L, 2L), received.get(5, TimeUnit.SECONDS));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void shouldServeEventsPublishedOnAnotherInstance() throws Exception {
+        when(mongoTemplate.findOne(any(Query.class), eq(OutboxRelayTest.Event.class))).thenReturn(event(3));
+        when(mongoTemplate.find(any(Query.class), eq(OutboxRelayTest.Event.class)))
+                .thenReturn(List.of(event(4), event(5)), List.of());
+
+        CompletableFuture<List<Long>> received = sink.events(null)
+                .map(OutboxRelayTest.Event::getSequence)
+                .take(2)
+                .collectList()
+                .toFuture();
+        // Only looks up the last published sequence number, so older events are not served as new ones
+        assertEquals(0, sink.tailBatch());
+        assertEquals(2, sink.tailBatch());
+        assertEquals(0, sink.tailBatch());
+
+        assertEquals(List.of(4L, 5L), received.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldLeaveEventsAfterOnesNotReadYetToTheTail() throws Exception {
+        when(mongoTemplate.findOne(any(Query.class), eq(OutboxRelayTest.Event.class))).thenReturn(event(3));
+        when(mongoTemplate.find(any(Query.class), eq(OutboxRelayTest.Event.class)))
+                .thenReturn(List.of(event(4), event(5)));
+
+        CompletableFuture<List<Long>> received = sink.events(null)
+                .map(OutboxRelayTest.Event::getSequence)
+                .take(3)
+                .collectList()
+                .toFuture();
+        sink.tailBatch();
+        // Event 4 was published by the instance that held the lease before and has not been read yet
+        sink.publish(event(5));
+        sink.tailBatch();
+        sink.publish(event(6));
+
+        assertEquals(List.of(4L, 5L, 6L), received.get(5, TimeUnit.SECONDS));
+    }
+
+    private static OutboxRelayTest.Event event(long sequence) {
+        return new OutboxRelayTest.Event(null, sequence, null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.example.common.outbox;
+
+import com.mongodb.MongoException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs the writes that record change events. With a transaction manager, which {@code outbox.transactional} decides,
+ * a write commits together with its events and is run again after a transient error; either way the relay is woken up
+ * once it succeeded. Each service's {@code Outbox} adds how its events are recorded.
+ */
+@Slf4j
+public class TransactionalOutbox {
+
+    // Attempts of a transaction that keeps failing with a transient error such as a write conflict
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxRelay<?> relay;
+
+    public TransactionalOutbox(@Nullable PlatformTransactionManager transactionManager, OutboxRelay<?> relay) {
+        this.transactionTemplate = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        this.relay = relay;
+    }
+
+    public <T> T inTransaction(Supplier<T> work) {
+        T result = transactionTemplate == null ? work.get() : executeWithRetry(work);
+        relay.signal();
+        return result;
+    }
+
+    private <T> T executeWithRetry(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                if (attempt == MAX_ATTEMPTS || !isTransient(e)) {
+                    throw e;
+                }
+                log.debug("Retrying transaction after transient error: {}", e.getMessage());
+            }
+        }
+    }
+
+    // MongoDB labels errors after which the whole transaction can safely be run again
+    public static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
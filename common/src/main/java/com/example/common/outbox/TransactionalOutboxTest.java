@@ -0,0 +1,71 @@
+package com.example.common.outbox;
+
+import com.mongodb.MongoException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TransactionalOutboxTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final OutboxRelay relay = mock(OutboxRelay.class);
+
+    private final TransactionalOutbox outbox = new TransactionalOutbox(transactionManager, relay);
+
+    @Test
+    void shouldRunTheTransactionAgainAfterATransientError() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = outbox.inTransaction(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw writeConflict();
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(2, attempts.get());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(relay).signal();
+    }
+
+    @Test
+    void shouldNotRetryOtherErrors() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> outbox.inTransaction(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Out of stock");
+        }));
+
+        assertEquals(1, attempts.get());
+        verify(relay, never()).signal();
+    }
+
+    @Test
+    void shouldGiveUpAfterTheLastAttempt() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        assertThrows(UncategorizedMongoDbException.class, () -> outbox.inTransaction(() -> {
+            throw writeConflict();
+        }));
+
+        verify(transactionManager, times(TransactionalOutbox.MAX_ATTEMPTS)).rollback(any());
+    }
+
+    private static RuntimeException writeConflict() {
+        MongoException cause = new MongoException(112, "WriteConflict");
+        cause.addLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL);
+        return new UncategorizedMongoDbException("Write conflict", cause);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.example.common.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory span exporter holding the spans this instance recorded for its most recent traces, so that a trace id
+ * taken from a log line or a Prometheus exemplar can be looked up through {@link TracesEndpoint} without a tracing
+ * backend. Spans arrive from the batch span processor a few seconds after they end. When the limit is reached, the
+ * trace whose first span arrived longest ago is dropped.
+ */
+public class RecentTraces implements SpanExporter {
+
+    public record RecordedSpan(String spanId, String parentSpanId, String name, String kind, Instant start,
+                               double durationMillis, String status, Map<String, String> attributes) {
+
+        Instant end() {
+            return start.plusNanos(Math.round(durationMillis * NANOS_PER_MILLI));
+        }
+    }
+
+    public record TraceSummary(String traceId, String name, Instant start, double durationMillis, int spans) {
+    }
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<String, List<RecordedSpan>> traces;
+
+    public RecentTraces(int maxTraces) {
+        this.traces = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<RecordedSpan>> eldest) {
+                return size() > maxTraces;
+            }
+        };
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        synchronized (traces) {
+            for (SpanData span : spans) {
+                traces.computeIfAbsent(span.getTraceId(), traceId -> new ArrayList<>()).add(record(span));
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * The spans of one trace ordered by start time, or an empty list when this instance has none.
+     */
+    public List<RecordedSpan> trace(String traceId) {
+        List<RecordedSpan> spans;
+        synchronized (traces) {
+            spans = new ArrayList<>(traces.getOrDefault(traceId, List.of()));
+        }
+        spans.sort(Comparator.comparing(RecordedSpan::start));
+        return spans;
+    }
+
+    /**
+     * The traces taking at least {@code minDurationMillis} from their first span's start to their last span's end,
+     * newest first. A trace is named after its earliest span whose parent was not recorded here, which is the span
+     * of the incoming request when the trace started in another service.
+     */
+    public List<TraceSummary> summaries(double minDurationMillis) {
+        List<TraceSummary> summaries = new ArrayList<>();
+        synchronized (traces) {
+            traces.forEach((traceId, spans) -> {
+                TraceSummary summary = summarize(traceId, spans);
+                if (summary.durationMillis() >= minDurationMillis) {
+                    summaries.add(summary);
+                }
+            });
+        }
+        summaries.sort(Comparator.comparing(TraceSummary::start).reversed());
+        return summaries;
+    }
+
+    private static TraceSummary summarize(String traceId, List<RecordedSpan> spans) {
+        List<String> spanIds = spans.stream().map(RecordedSpan::spanId).toList();
+        RecordedSpan root = spans.stream()
+                .filter(span -> span.parentSpanId() == null || !spanIds.contains(span.parentSpanId()))
+                .min(Comparator.comparing(RecordedSpan::start))
+                .orElse(spans.get(0));
+        Instant start = spans.stream().map(RecordedSpan::start).min(Comparator.naturalOrder()).orElseThrow();
+        Instant end = spans.stream().map(RecordedSpan::end).max(Comparator.naturalOrder()).orElseThrow();
+        return new TraceSummary(traceId, root.name(), start, millis(Duration.between(start, end).toNanos()),
+                spans.size());
+    }
+
+    private static RecordedSpan record(SpanData span) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        String parentSpanId = span.getParentSpanContext().isValid() ? span.getParentSpanId() : null;
+        String status = span.getStatus().getDescription().isEmpty()
+                ? span.getStatus().getStatusCode().name()
+                : span.getStatus().getStatusCode() + ": " + span.getStatus().getDescription();
+        return new RecordedSpan(span.getSpanId(), parentSpanId, span.getName(), span.getKind().name(),
+                Instant.ofEpochSecond(0, span.getStartEpochNanos()),
+                millis(span.getEndEpochNanos() - span.getStartEpochNanos()),
+                status, attributes);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
\ No newline at end of file
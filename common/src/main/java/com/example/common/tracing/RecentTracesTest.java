@@ -0,0 +1,105 @@
+package com.example.common.tracing;
+
+import com.example.common.tracing.RecentTraces.RecordedSpan;
+import com.example.common.tracing.RecentTraces.TraceSummary;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecentTracesTest {
+
+    private static final long START = TimeUnit.SECONDS.toNanos(1_700_000_000);
+
+    private final RecentTraces recentTraces = new RecentTraces(2);
+    private final Tracer tracer = SdkTracerProvider.builder()
+            .addSpanProcessor(SimpleSpanProcessor.create(recentTraces))
+            .build()
+            .get("test");
+
+    private Span span(String name, Span parent, long startMillis, long endMillis) {
+        Span span = tracer.spanBuilder(name)
+                .setParent(parent == null ? Context.root() : Context.root().with(parent))
+                .setSpanKind(parent == null ? SpanKind.SERVER : SpanKind.CLIENT)
+                .setStartTimestamp(START + TimeUnit.MILLISECONDS.toNanos(startMillis), TimeUnit.NANOSECONDS)
+                .startSpan();
+        span.end(START + TimeUnit.MILLISECONDS.toNanos(endMillis), TimeUnit.NANOSECONDS);
+        return span;
+    }
+
+    @Test
+    void shouldKeepSpansOfTraceInStartOrder() {
+        Span request = tracer.spanBuilder("http get /api/products/{id}")
+                .setStartTimestamp(START, TimeUnit.NANOSECONDS)
+                .startSpan();
+        Span find = span("find", request, 5, 25);
+        tracer.spanBuilder("insert")
+                .setParent(Context.root().with(request))
+                .setAttribute("db.mongodb.collection", "products")
+                .setStartTimestamp(START + TimeUnit.MILLISECONDS.toNanos(30), TimeUnit.NANOSECONDS)
+                .startSpan()
+                .end(START + TimeUnit.MILLISECONDS.toNanos(35), TimeUnit.NANOSECONDS);
+        request.end(START + TimeUnit.MILLISECONDS.toNanos(40), TimeUnit.NANOSECONDS);
+
+        List<RecordedSpan> spans = recentTraces.trace(request.getSpanContext().getTraceId());
+
+        assertEquals(List.of("http get /api/products/{id}", "find", "insert"),
+                spans.stream().map(RecordedSpan::name).toList());
+        assertNull(spans.get(0).parentSpanId());
+        assertEquals(request.getSpanContext().getSpanId(), spans.get(1).parentSpanId());
+        assertEquals(find.getSpanContext().getSpanId(), spans.get(1).spanId());
+        assertEquals("CLIENT", spans.get(1).kind());
+        assertEquals(20.0, spans.get(1).durationMillis(), 0.001);
+        assertEquals("UNSET", spans.get(1).status());
+        assertEquals("products", spans.get(2).attributes().get("db.mongodb.collection"));
+
+        List<TraceSummary> summaries = recentTraces.summaries(0);
+        assertEquals(1, summaries.size());
+        assertEquals("http get /api/products/{id}", summaries.get(0).name());
+        assertEquals(40.0, summaries.get(0).durationMillis(), 0.001);
+        assertEquals(3, summaries.get(0).spans());
+    }
+
+    @Test
+    void shouldListSlowTracesNewestFirst() {
+        Span slow = span("http get /api/products/{id}", null, 0, 2_000);
+        Span fast = span("http get /api/products", null, 100, 110);
+        Span slower = span("http post /api/products/bulk", null, 200, 5_000);
+
+        assertEquals(List.of(slower.getSpanContext().getTraceId(), fast.getSpanContext().getTraceId()),
+                recentTraces.summaries(0).stream().map(TraceSummary::traceId).toList());
+        assertEquals(List.of(slower.getSpanContext().getTraceId()),
+                recentTraces.summaries(1_000).stream().map(TraceSummary::traceId).toList());
+        // Beyond the limit of two traces the first one is dropped
+        assertTrue(recentTraces.trace(slow.getSpanContext().getTraceId()).isEmpty());
+    }
+
+    @Test
+    void shouldNameTraceAfterRequestFromAnotherService() {
+        SpanContext orderService = SpanContext.createFromRemoteParent("0af7651916cd43dd8448eb211c80319c",
+                "b7ad6b7169203331", TraceFlags.getSampled(), TraceState.getDefault());
+        Span request = tracer.spanBuilder("http post /api/products/reservations")
+                .setParent(Context.root().with(Span.wrap(orderService)))
+                .setStartTimestamp(START, TimeUnit.NANOSECONDS)
+                .startSpan();
+        span("update", request, 1, 3);
+        request.end(START + TimeUnit.MILLISECONDS.toNanos(4), TimeUnit.NANOSECONDS);
+
+        assertEquals("b7ad6b7169203331",
+                recentTraces.trace("0af7651916cd43dd8448eb211c80319c").get(0).parentSpanId());
+        TraceSummary summary = recentTraces.summaries(0).get(0);
+        assertEquals("http post /api/products/reservations", summary.name());
+        assertEquals(2, summary.spans());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.example.common.tracing;
+
+import com.mongodb.RequestContext;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+
+/**
+ * Passes on the MongoDB commands sent on behalf of an observed request, leaving out those of background work such
+ * as the outbox relay polling its collection, which would otherwise start a trace of their own several times a
+ * second. The driver's request context carries the observation of the request that sent the command.
+ */
+public class RequestMongoCommandListener implements CommandListener {
+
+    private final CommandListener delegate;
+
+    public RequestMongoCommandListener(CommandListener delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (isObserved(event.getRequestContext())) {
+            delegate.commandStarted(event);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (isObserved(event.getRequestContext())) {
+            delegate.commandSucceeded(event);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        if (isObserved(event.getRequestContext())) {
+            delegate.commandFailed(event);
+        }
+    }
+
+    private static boolean isObserved(RequestContext requestContext) {
+        return requestContext != null && requestContext.hasKey(ObservationThreadLocalAccessor.KEY);
+    }
+}
\ No newline at end of file
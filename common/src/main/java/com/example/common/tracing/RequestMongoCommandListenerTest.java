@@ -0,0 +1,52 @@
+package com.example.common.tracing;
+
+import com.mongodb.RequestContext;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class RequestMongoCommandListenerTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private final CommandListener delegate = mock(CommandListener.class);
+    private final RequestMongoCommandListener listener = new RequestMongoCommandListener(delegate);
+
+    private void find(RequestContext requestContext) {
+        listener.commandStarted(new CommandStartedEvent(requestContext, 1, 1, CONNECTION, "order-service", "find",
+                new BsonDocument("find", new BsonString("orders"))));
+        listener.commandSucceeded(new CommandSucceededEvent(requestContext, 1, 1, CONNECTION, "find",
+                new BsonDocument(), 1_000));
+    }
+
+    @Test
+    void shouldPassOnCommandsOfObservedRequests() {
+        RequestContext requestContext = mock(RequestContext.class);
+        when(requestContext.hasKey(ObservationThreadLocalAccessor.KEY)).thenReturn(true);
+
+        find(requestContext);
+
+        verify(delegate).commandStarted(any());
+        verify(delegate).commandSucceeded(any());
+    }
+
+    @Test
+    void shouldLeaveOutCommandsOfBackgroundWork() {
+        find(mock(RequestContext.class));
+        find(null);
+
+        verifyNoInteractions(delegate);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.common.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The traces kept by {@link RecentTraces}: {@code GET /actuator/traces?minDuration=1s} lists the slow ones, newest
+ * first, and {@code GET /actuator/traces/{traceId}} returns the spans this instance recorded for one of them.
+ */
+@Endpoint(id = "traces")
+@RequiredArgsConstructor
+public class TracesEndpoint {
+
+    private final RecentTraces recentTraces;
+
+    @ReadOperation
+    public List<RecentTraces.TraceSummary> traces(@Nullable Duration minDuration) {
+        return recentTraces.summaries(minDuration == null ? 0 : minDuration.toNanos() / 1_000_000.0);
+    }
+
+    // No spans answers 404
+    @ReadOperation
+    public List<RecentTraces.RecordedSpan> trace(@Selector String traceId) {
+        List<RecentTraces.RecordedSpan> spans = recentTraces.trace(traceId);
+        return spans.isEmpty() ? null : spans;
+    }
+}
\ No newline at end of file
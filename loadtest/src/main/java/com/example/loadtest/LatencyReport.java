@@ -0,0 +1,105 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the measured requests, per request type. A request's latency runs from the time it was
+ * scheduled to be sent, not from when it actually went out, so a stalled service or load generator shows up in the
+ * latencies instead of silently lowering the request rate.
+ */
+final class LatencyReport {
+
+    static final String ALL = "all";
+
+    // Latencies are recorded in microseconds, up to a minute at 3 significant digits
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final class Operation {
+        final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+    }
+
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+
+    LatencyReport(Iterable<String> operationNames) {
+        operationNames.forEach(name -> operations.put(name, new Operation()));
+    }
+
+    // Failed requests are recorded too: a fast error must not make the service look faster
+    void record(String operation, long scheduledNanos, long completedNanos, boolean failed) {
+        Operation stats = operations.get(operation);
+        long micros = TimeUnit.NANOSECONDS.toMicros(completedNanos - scheduledNanos);
+        stats.latencies.recordValue(Math.min(Math.max(micros, 0), HIGHEST_LATENCY_MICROS));
+        if (failed) {
+            stats.errors.increment();
+        }
+    }
+
+    void skipped(String operation) {
+        operations.get(operation).skipped.increment();
+    }
+
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        Histogram all = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long errors = 0;
+        long skipped = 0;
+        for (Map.Entry<String, Operation> operation : operations.entrySet()) {
+            Operation stats = operation.getValue();
+            Histogram latencies = stats.latencies.copy();
+            all.add(latencies);
+            errors += stats.errors.sum();
+            skipped += stats.skipped.sum();
+            summary.put(operation.getKey(), summarize(latencies, stats.errors.sum(), stats.skipped.sum(), seconds));
+        }
+        summary.put(ALL, summarize(all, errors, skipped, seconds));
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    static void print(Map<String, Object> summary, PrintStream out) {
+        out.printf("%-16s %9s %7s %8s %9s %9s %9s %9s %9s %9s%n", "request", "completed", "errors", "skipped",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        summary.forEach((operation, value) -> {
+            Map<String, Object> stats = (Map<String, Object>) value;
+            Map<String, Double> latency = (Map<String, Double>) stats.get("latencyMillis");
+            out.printf("%-16s %9d %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", operation,
+                    stats.get("completed"), stats.get("errors"), stats.get("skipped"), stats.get("throughputPerSecond"),
+                    latency.get("p50"), latency.get("p90"), latency.get("p99"), latency.get("p99.9"), latency.get("max"));
+        });
+    }
+
+    private static Map<String, Object> summarize(Histogram latencies, long errors, long skipped, double seconds) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("completed", latencies.getTotalCount());
+        stats.put("errors", errors);
+        stats.put("skipped", skipped);
+        stats.put("throughputPerSecond", round((latencies.getTotalCount() - errors) / seconds));
+        Map<String, Double> latency = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            String name = percentile == Math.rint(percentile) ? "p" + (long) percentile : "p" + percentile;
+            latency.put(name, millis(latencies.getValueAtPercentile(percentile)));
+        }
+        latency.put("max", millis(latencies.getMaxValue()));
+        latency.put("mean", round(latencies.getMean() / 1000));
+        stats.put("latencyMillis", latency);
+        return stats;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.example.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadTestRunner}, given as {@code --name=value}.
+ */
+final class LoadTestOptions {
+
+    static final String USAGE = """
+            usage: java -jar loadtest/target/loadtest.jar [--name=value ...]
+              --rate=50                  requests per second, sent on schedule whether or not earlier ones have finished
+              --warmup=15s               traffic before measuring, not reported
+              --duration=60s             measured traffic
+              --mix=create-order:20,get-product:60,customer-orders:20
+                                         relative weights of the request types
+              --line-items=1-50          line items per order, uniformly distributed
+              --products=1000            products imported before the run
+              --customers=200            distinct customer emails placing orders
+              --seed=42                  seed of the request sequence
+              --max-in-flight=2000       requests due while this many are outstanding are skipped and counted
+              --product-service-jar=product-service/target/product-service-0.0.1-SNAPSHOT-exec.jar
+              --order-service-jar=order-service/target/order-service-0.0.1-SNAPSHOT-exec.jar
+              --product-service-property=key=value, --order-service-property=key=value
+                                         extra service properties, repeatable
+              --logs=target/loadtest     directory for the service logs
+              --output=loadtest-result.json
+            """;
+
+    int rate = 50;
+    Duration warmup = Duration.ofSeconds(15);
+    Duration duration = Duration.ofSeconds(60);
+    Map<String, Integer> mix = parseMix("create-order:20,get-product:60,customer-orders:20");
+    int minLineItems = 1;
+    int maxLineItems = 50;
+    int products = 1000;
+    int customers = 200;
+    long seed = 42;
+    int maxInFlight = 2000;
+    Path productServiceJar = Path.of("product-service/target/product-service-0.0.1-SNAPSHOT-exec.jar");
+    Path orderServiceJar = Path.of("order-service/target/order-service-0.0.1-SNAPSHOT-exec.jar");
+    List<String> productServiceProperties = new ArrayList<>();
+    List<String> orderServiceProperties = new ArrayList<>();
+    Path logs = Path.of("target/loadtest");
+    Path output = Path.of("loadtest-result.json");
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String value = arg.substring(equals + 1);
+            switch (arg.substring(2, equals)) {
+                case "rate" -> options.rate = positive("rate", Integer.parseInt(value));
+                case "warmup" -> options.warmup = parseDuration(value);
+                case "duration" -> options.duration = parseDuration(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "line-items" -> {
+                    String[] range = value.split("-");
+                    options.minLineItems = positive("line-items", Integer.parseInt(range[0]));
+                    options.maxLineItems = range.length > 1 ? Integer.parseInt(range[1]) : options.minLineItems;
+                    if (options.maxLineItems < options.minLineItems) {
+                        throw new IllegalArgumentException("Invalid line-items range " + value);
+                    }
+                }
+                case "products" -> options.products = positive("products", Integer.parseInt(value));
+                case "customers" -> options.customers = positive("customers", Integer.parseInt(value));
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "max-in-flight" -> options.maxInFlight = positive("max-in-flight", Integer.parseInt(value));
+                case "product-service-jar" -> options.productServiceJar = Path.of(value);
+                case "order-service-jar" -> options.orderServiceJar = Path.of(value);
+                case "product-service-property" -> options.productServiceProperties.add(value);
+                case "order-service-property" -> options.orderServiceProperties.add(value);
+                case "logs" -> options.logs = Path.of(value);
+                case "output" -> options.output = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (options.maxLineItems > options.products) {
+            throw new IllegalArgumentException("Orders cannot have more line items than there are products");
+        }
+        return options;
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("rate", rate);
+        config.put("warmupSeconds", warmup.toSeconds());
+        config.put("durationSeconds", duration.toSeconds());
+        config.put("mix", mix);
+        config.put("lineItems", minLineItems + "-" + maxLineItems);
+        config.put("products", products);
+        config.put("customers", customers);
+        config.put("seed", seed);
+        config.put("maxInFlight", maxInFlight);
+        config.put("productServiceProperties", productServiceProperties);
+        config.put("orderServiceProperties", orderServiceProperties);
+        return config;
+    }
+
+    // 30s, 2m, ...
+    private static Duration parseDuration(String value) {
+        return Duration.parse("PT" + value.toUpperCase(Locale.ROOT));
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] weight = entry.split(":");
+            if (!RequestMix.OPERATIONS.contains(weight[0])) {
+                throw new IllegalArgumentException("Unknown request type " + weight[0]
+                        + ", expected one of " + RequestMix.OPERATIONS);
+            }
+            mix.put(weight[0], Integer.parseInt(weight[1]));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The mix needs at least one positive weight");
+        }
+        return mix;
+    }
+
+    private static int positive(String name, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,192 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of product-service and order-service that needs neither MongoDB, Docker nor a network.
+ *
+ * <p>An in-memory MongoDB runs inside this JVM and both services run from their executable jars against it. After
+ * importing {@code --products} products the load test sends a weighted mix of order creations, product lookups and
+ * customer order lookups at a fixed rate: requests go out on schedule whether or not earlier ones have completed, as
+ * they would from independent clients. Nothing is measured during the warm-up; for the measured part it prints
+ * throughput and latency percentiles per request type and writes them with the options used to a JSON file.
+ *
+ * <p>The in-memory MongoDB has no transactions and keeps its data on the heap, so the numbers are for comparing
+ * changes with each other under the same options, not for predicting production capacity.
+ */
+public class LoadTestRunner {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(35);
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    LoadTestRunner(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (List.of(args).contains("--help")) {
+            System.out.print(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        new LoadTestRunner(options).run();
+    }
+
+    void run() throws Exception {
+        MongoServer mongo = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongo.bind();
+        String mongoUri = "mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        try (ServiceProcess productService = ServiceProcess.start("product-service", options.productServiceJar,
+                options.logs, properties(mongoUri + "/product-service", options.productServiceProperties))) {
+            productService.awaitHealthy(client);
+            List<String> productIds = importProducts(client, productService.uri());
+
+            List<String> orderServiceProperties = new ArrayList<>();
+            orderServiceProperties.add("product-service.url=" + productService.uri());
+            // The in-memory MongoDB cannot explain queries
+            orderServiceProperties.add("query-plan-check.mode=off");
+            orderServiceProperties.addAll(options.orderServiceProperties);
+            try (ServiceProcess orderService = ServiceProcess.start("order-service", options.orderServiceJar,
+                    options.logs, properties(mongoUri + "/order-service", orderServiceProperties))) {
+                orderService.awaitHealthy(client);
+                RequestMix mix = new RequestMix(options, productIds, productService.uri(), orderService.uri());
+
+                System.out.printf("Warming up for %ds at %d requests/s%n", options.warmup.toSeconds(), options.rate);
+                send(client, mix, options.warmup, new LatencyReport(options.mix.keySet()));
+                System.out.printf("Measuring for %ds at %d requests/s%n", options.duration.toSeconds(), options.rate);
+                LatencyReport report = new LatencyReport(options.mix.keySet());
+                double seconds = send(client, mix, options.duration, report);
+
+                Map<String, Object> summary = report.summary(seconds);
+                System.out.println();
+                LatencyReport.print(summary, System.out);
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("options", options.describe());
+                result.put("measuredSeconds", seconds);
+                result.put("requests", summary);
+                objectMapper.writeValue(options.output.toFile(), result);
+                System.out.println("\nResults written to " + options.output + ", service logs in " + options.logs);
+            }
+        } finally {
+            executor.shutdownNow();
+            mongo.shutdownNow();
+        }
+    }
+
+    // The in-memory MongoDB has no multi-document transactions
+    private static List<String> properties(String mongoUri, List<String> extra) {
+        List<String> properties = new ArrayList<>();
+        properties.add("spring.data.mongodb.uri=" + mongoUri);
+        properties.add("outbox.transactional=false");
+        properties.addAll(extra);
+        return properties;
+    }
+
+    // Stock that no run can use up, so every order can be placed
+    private List<String> importProducts(HttpClient client, URI productService) throws IOException, InterruptedException {
+        SplittableRandom random = new SplittableRandom(options.seed);
+        ObjectWriter line = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < options.products; i++) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("name", "Load test product " + i);
+            product.put("description", "Product " + i + " imported by the load test");
+            product.put("price", BigDecimal.valueOf(random.nextInt(100, 10_000), 2));
+            product.put("stock", 1_000_000_000);
+            ndjson.append(line.writeValueAsString(product)).append('\n');
+        }
+        HttpResponse<String> imported = client.send(HttpRequest.newBuilder(productService.resolve("/api/products/bulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (imported.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Product import failed with " + imported.statusCode() + ": " + imported.body());
+        }
+
+        HttpResponse<String> summaries = client.send(HttpRequest.newBuilder(productService.resolve("/api/products?view=summary"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        List<String> productIds = new ArrayList<>();
+        for (JsonNode product : objectMapper.readTree(summaries.body())) {
+            productIds.add(product.get("id").asText());
+        }
+        if (productIds.size() < options.maxLineItems) {
+            throw new IllegalStateException("Only " + productIds.size() + " products were imported");
+        }
+        return productIds;
+    }
+
+    // Returns the length of the phase in seconds
+    private double send(HttpClient client, RequestMix mix, Duration length, LatencyReport report)
+            throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        double intervalNanos = 1e9 / options.rate;
+        long requests = (long) (length.toNanos() / intervalNanos);
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            RequestMix.Request request = mix.next();
+            if (inFlight.get() >= options.maxInFlight) {
+                report.skipped(request.operation());
+                continue;
+            }
+            inFlight.incrementAndGet();
+            client.sendAsync(request.httpRequest(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        report.record(request.operation(), scheduled, System.nanoTime(),
+                                error != null || response.statusCode() / 100 != 2);
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        // Requests still outstanding belong to this phase and must not spill into the next one
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return length.toNanos() / 1e9;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.example.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * The sequence of requests sent during a run. It only depends on the seed and the options, so two runs with the
+ * same options send the same requests in the same order.
+ */
+final class RequestMix {
+
+    static final String CREATE_ORDER = "create-order";
+    static final String GET_PRODUCT = "get-product";
+    static final String CUSTOMER_ORDERS = "customer-orders";
+    static final List<String> OPERATIONS = List.of(CREATE_ORDER, GET_PRODUCT, CUSTOMER_ORDERS);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    record Request(String operation, HttpRequest httpRequest) {
+    }
+
+    private final LoadTestOptions options;
+    private final List<String> productIds;
+    private final URI productService;
+    private final URI orderService;
+    private final SplittableRandom random;
+    private final String[] operations;
+    private final int[] cumulativeWeights;
+
+    RequestMix(LoadTestOptions options, List<String> productIds, URI productService, URI orderService) {
+        this.options = options;
+        this.productIds = productIds;
+        this.productService = productService;
+        this.orderService = orderService;
+        this.random = new SplittableRandom(options.seed);
+        this.operations = options.mix.keySet().toArray(String[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    Request next() {
+        String operation = nextOperation();
+        HttpRequest request = switch (operation) {
+            case CREATE_ORDER -> post(orderService.resolve("/api/orders"), orderBody());
+            case GET_PRODUCT -> get(productService.resolve("/api/products/" + randomProductId()));
+            case CUSTOMER_ORDERS -> get(orderService.resolve("/api/orders/customer/"
+                    + URLEncoder.encode(randomCustomer(), StandardCharsets.UTF_8) + "?limit=20"));
+            default -> throw new IllegalStateException("Unknown request type " + operation);
+        };
+        return new Request(operation, request);
+    }
+
+    private String nextOperation() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Weights do not add up");
+    }
+
+    // Each product at most once, a client orders more of a product by raising the quantity
+    private String orderBody() {
+        int lineItems = random.nextInt(options.minLineItems, options.maxLineItems + 1);
+        Set<String> products = new HashSet<>();
+        StringBuilder body = new StringBuilder()
+                .append("{\"customerName\":\"Load Test\",\"customerEmail\":\"")
+                .append(randomCustomer())
+                .append("\",\"orderLineItems\":[");
+        while (products.size() < lineItems) {
+            String productId = randomProductId();
+            if (products.add(productId)) {
+                if (products.size() > 1) {
+                    body.append(',');
+                }
+                body.append("{\"productId\":\"").append(productId)
+                        .append("\",\"quantity\":").append(1 + random.nextInt(3)).append('}');
+            }
+        }
+        return body.append("]}").toString();
+    }
+
+    private String randomProductId() {
+        return productIds.get(random.nextInt(productIds.size()));
+    }
+
+    private String randomCustomer() {
+        return "customer-" + random.nextInt(options.customers) + "@example.com";
+    }
+
+    private static HttpRequest get(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest post(URI uri, String json) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.ProductDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Subscribes to {@code GET /api/products/changes} and applies every product change to the {@link ProductReplica}.
+ * When the stream fails or ends, the replica stops serving and the feed reconnects with growing delays. It
+ * resumes after the last change it applied, so no change is missed while the events are still stored, and the
+ * replica only serves again once product-service reports that the changes it missed have been replayed.
+ */
+@Component
+@Slf4j
+public class ProductChangeFeed implements SmartLifecycle {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<ProductDto>> CHANGE = new ParameterizedTypeReference<>() {
+    };
+
+    // Sent by product-service after the stored changes, before the live ones
+    private static final String CAUGHT_UP = "caught-up";
+
+    private final WebClient webClient;
+    private final ProductReplica replica;
+    private final boolean enabled;
+    private final Duration idleTimeout;
+    private final Duration reconnectDelay;
+    private final Duration maxReconnectDelay;
+
+    @Value("${product-service.url}")
+    private String productServiceUrl;
+
+    // Sequence number of the last change applied; null until the first one arrived
+    private volatile Long lastSequence;
+    private volatile Disposable subscription;
+
+    public ProductChangeFeed(WebClient webClient,
+                             ProductReplica replica,
+                             @Value("${product-service.replica.enabled:true}") boolean enabled,
+                             @Value("${product-service.replica.idle-timeout:45s}") Duration idleTimeout,
+                             @Value("${product-service.replica.reconnect-delay:1s}") Duration reconnectDelay,
+                             @Value("${product-service.replica.max-reconnect-delay:30s}") Duration maxReconnectDelay) {
+        this.webClient = webClient;
+        this.replica = replica;
+        this.enabled = enabled;
+        this.idleTimeout = idleTimeout;
+        this.reconnectDelay = reconnectDelay;
+        this.maxReconnectDelay = maxReconnectDelay;
+    }
+
+    @Override
+    public void start() {
+        if (enabled) {
+            subscription = changes().subscribe();
+        }
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        if (current != null) {
+            current.dispose();
+            subscription = null;
+        }
+        replica.disconnected();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null;
+    }
+
+    Flux<ServerSentEvent<ProductDto>> changes() {
+        return Flux.defer(this::connect)
+                .doOnNext(this::apply)
+                .doOnError(e -> {
+                    replica.disconnected();
+                    log.warn("Product change feed failed, reconnecting: {}", e.getMessage());
+                })
+                .doOnComplete(replica::disconnected)
+                // product-service ends the stream after its async request timeout
+                .repeatWhen(completed -> completed.delayElements(reconnectDelay))
+                // Received events, heartbeats included, reset the delay
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, reconnectDelay)
+                        .maxBackoff(maxReconnectDelay)
+                        .transientErrors(true));
+    }
+
+    private Flux<ServerSentEvent<ProductDto>> connect() {
+        Long resumeAfter = lastSequence;
+        return webClient.get()
+                .uri(productServiceUrl + "/api/products/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .headers(headers -> {
+                    if (resumeAfter != null) {
+                        headers.set("Last-Event-ID", resumeAfter.toString());
+                    }
+                })
+                // Replaces the client-wide response timeout: the stream stays open, with a heartbeat at least this often
+                .httpRequest(request -> {
+                    if (request.getNativeRequest() instanceof HttpClientRequest nativeRequest) {
+                        nativeRequest.responseTimeout(idleTimeout);
+                    }
+                })
+                .exchangeToFlux(response -> {
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.<ServerSentEvent<ProductDto>>createError().flux();
+                    }
+                    return response.bodyToFlux(CHANGE);
+                });
+    }
+
+    private void apply(ServerSentEvent<ProductDto> event) {
+        // Heartbeats carry neither
+        if (event.id() == null || event.data() == null) {
+            if (CAUGHT_UP.equals(event.comment())) {
+                replica.connected();
+            }
+            return;
+        }
+        long sequence = Long.parseLong(event.id());
+        Long last = lastSequence;
+        // Changes are delivered at least once; those applied before are skipped
+        if (last != null && sequence <= last) {
+            return;
+        }
+        replica.apply(event.data());
+        lastSequence = sequence;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductChangeFeedTest {
+
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+    private final ProductReplica replica = new ProductReplica(new SimpleMeterRegistry(), 100);
+
+    private ProductChangeFeed feed(String... streams) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+                            .body(streams[Math.min(requests.size(), streams.length) - 1])
+                            .build());
+                })
+                .build();
+
+        ProductChangeFeed feed = new ProductChangeFeed(webClient, replica, true, Duration.ofSeconds(45),
+                Duration.ofMillis(10), Duration.ofMillis(100));
+        ReflectionTestUtils.setField(feed, "productServiceUrl", "http://product-service");
+        return feed;
+    }
+
+    private static String change(long sequence, int stock) {
+        return "id:" + sequence + "\nevent:PRODUCT_STOCK_CHANGED\ndata:{\"id\":\"1\",\"name\":\"Product 1\",\"price\":10.99,\"stock\":"
+                + stock + "}\n\n";
+    }
+
+    @Test
+    void shouldApplyEveryChangeOnceAndResumeAfterTheLastOne() {
+        ProductChangeFeed feed = feed(
+                ":caught-up\n\n" + change(1, 5) + ":heartbeat\n\n" + change(2, 3),
+                // Change 2 is delivered again after the reconnect
+                change(2, 3) + ":caught-up\n\n" + change(3, 0));
+
+        feed.changes().take(7).blockLast(Duration.ofSeconds(5));
+
+        assertEquals(2, requests.size());
+        assertEquals("/api/products/changes", requests.get(0).url().getPath());
+        assertNull(requests.get(0).headers().getFirst("Last-Event-ID"));
+        assertEquals("2", requests.get(1).headers().getFirst("Last-Event-ID"));
+        assertEquals(0, replica.get("1").map(ProductDto::getStock).orElseThrow());
+    }
+
+    @Test
+    void shouldNotServeReplicaUntilMissedChangesAreReplayed() {
+        ProductChangeFeed feed = feed(change(1, 0) + change(2, 5) + ":caught-up\n\n");
+        List<Optional<Integer>> served = new CopyOnWriteArrayList<>();
+
+        feed.changes()
+                .doOnNext(event -> served.add(replica.get("1").map(ProductDto::getStock)))
+                .take(3)
+                .blockLast(Duration.ofSeconds(5));
+
+        // The replayed stock of 0 is never served, only the stock after the replay
+        assertEquals(List.of(Optional.empty(), Optional.empty(), Optional.of(5)), served);
+    }
+
+    @Test
+    void shouldOnlyReportProductsKnownToBeShortWhileConnected() {
+        replica.apply(ProductDto.builder().id("1").price(Money.of(new BigDecimal("10.99"))).stock(1).build());
+        replica.apply(ProductDto.builder().id("2").price(Money.of(new BigDecimal("10.99"))).stock(10).build());
+        List<OrderLineItemDto> items = List.of(
+                new OrderLineItemDto("2", 5),
+                new OrderLineItemDto("3", 100),
+                new OrderLineItemDto("1", 1),
+                new OrderLineItemDto("1", 1));
+
+        assertEquals(Optional.empty(), replica.findShortProduct(items));
+        replica.connected();
+        assertEquals(Optional.of("1"), replica.findShortProduct(items));
+        replica.disconnected();
+        assertEquals(Optional.empty(), replica.get("2"));
+    }
+}
\ No newline at end of file
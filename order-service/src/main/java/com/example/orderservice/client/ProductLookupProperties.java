@@ -0,0 +1,62 @@
+package com.example.orderservice.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Hedging and retry settings for the idempotent product-service calls, per call type, bound from
+ * {@code product-service.lookup.*}. Releases are never hedged or retried; they are attempted once and logged if
+ * they fail.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "product-service.lookup")
+public class ProductLookupProperties {
+
+    /** {@code GET /api/products/{id}}. */
+    private CallPolicy byId = new CallPolicy();
+
+    /**
+     * {@code POST /api/products/reservations}. Safe to repeat: product-service makes a reservation at most once per
+     * reservation id, and answers a repeat with the reservation it already made.
+     */
+    private CallPolicy reservation = new CallPolicy();
+
+    private RetryBudgetPolicy retryBudget = new RetryBudgetPolicy();
+
+    @Data
+    public static class CallPolicy {
+        private Hedging hedging = new Hedging();
+        private Retry retry = new Retry();
+    }
+
+    @Data
+    public static class Hedging {
+        private boolean enabled = false;
+        /** Latency percentile of recent calls after which a second request is sent. */
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(20);
+        /** Also used until enough calls have been observed. */
+        private Duration maxDelay = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Retry {
+        /** Including the first attempt; 1 disables retries. */
+        private int maxAttempts = 2;
+        private Duration backoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofMillis(500);
+        private double jitter = 0.5;
+    }
+
+    @Data
+    public static class RetryBudgetPolicy {
+        /** Retries and hedges earned per lookup, e.g. 0.1 allows one extra request for every ten lookups. */
+        private double ratio = 0.1;
+        /** Upper bound on unspent retries, so a quiet period cannot build up a burst. */
+        private double maxBalance = 10;
+    }
+}
\ No newline at end of file
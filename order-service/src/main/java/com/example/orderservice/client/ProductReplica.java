@@ -0,0 +1,97 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.ProductDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Local copy of the name, price and stock of the products that changed recently, kept up to date by
+ * {@link ProductChangeFeed}. Products that are ordered a lot change stock with every order, so they are the
+ * ones found here. When {@code product-service.replica.max-size} is reached, the products changed and looked
+ * up least often are dropped first.
+ * <p>
+ * Nothing is served while the feed is disconnected, because the copy could then be stale without limit.
+ * While it is connected, the copy lags product-service by the feed's delay. The metrics are the
+ * {@code cache.*} meters with {@code cache=productReplica} and {@code product.replica.connected}.
+ */
+@Component
+@Slf4j
+public class ProductReplica {
+
+    private final Cache<String, ProductDto> products;
+    private volatile boolean connected;
+
+    public ProductReplica(MeterRegistry meterRegistry,
+                          @Value("${product-service.replica.max-size:10000}") long maxSize) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "productReplica");
+        Gauge.builder("product.replica.connected", this, replica -> replica.connected ? 1 : 0)
+                .description("Whether the product replica receives product-service changes")
+                .register(meterRegistry);
+    }
+
+    public Optional<ProductDto> get(String productId) {
+        return connected ? Optional.ofNullable(products.getIfPresent(productId)) : Optional.empty();
+    }
+
+    /**
+     * Returns the first product the replica knows to have less stock than the line items ask for. Products
+     * missing from the replica are never reported, so an empty result does not mean there is enough stock.
+     */
+    public Optional<String> findShortProduct(List<OrderLineItemDto> items) {
+        if (!connected) {
+            return Optional.empty();
+        }
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (OrderLineItemDto item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities.entrySet().stream()
+                .filter(entry -> {
+                    ProductDto product = products.getIfPresent(entry.getKey());
+                    return product != null && product.getStock() != null && product.getStock() < entry.getValue();
+                })
+                .map(Map.Entry::getKey)
+                .findFirst();
+    }
+
+    /**
+     * Applies a change received from product-service. Changes arrive in the order they were made.
+     */
+    void apply(ProductDto product) {
+        products.put(product.getId(), product);
+    }
+
+    void connected() {
+        if (!connected) {
+            log.info("Product replica is receiving product-service changes");
+        }
+        connected = true;
+    }
+
+    void disconnected() {
+        if (connected) {
+            log.warn("Product replica stopped receiving product-service changes; using product-service until it reconnects");
+        }
+        connected = false;
+    }
+
+    public long size() {
+        return products.estimatedSize();
+    }
+}
\ No newline at end of file
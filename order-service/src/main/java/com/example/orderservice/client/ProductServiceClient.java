@@ -1,34 +1,307 @@
 package com.example.orderservice.client;
 
+import com.example.orderservice.dto.OrderLineItemDto;
 import com.example.orderservice.dto.ProductDto;
-import lombok.RequiredArgsConstructor;
+import com.example.orderservice.dto.StockReservationFailure;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ProductServiceClient {
 
+    private enum CallType {
+        BY_ID("by-id"),
+        RESERVATION("reservation"),
+        RELEASE("release");
+
+        private final String tag;
+
+        CallType(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final ProductServiceFailurePredicate FAILURES = new ProductServiceFailurePredicate();
+
+    private static final Predicate<Throwable> UNAVAILABLE = e -> e instanceof CallNotPermittedException
+            || e instanceof BulkheadFullException
+            || FAILURES.test(e);
+
     private final WebClient webClient;
+    private final ProductReplica productReplica;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final ProductLookupProperties lookupProperties;
+    private final RetryBudget retryBudget;
+    private final MeterRegistry meterRegistry;
     
     @Value("${product-service.url}")
     private String productServiceUrl;
+
+    public ProductServiceClient(WebClient webClient,
+                                ProductReplica productReplica,
+                                CircuitBreaker circuitBreaker,
+                                Bulkhead bulkhead,
+                                ProductLookupProperties lookupProperties,
+                                MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.productReplica = productReplica;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.lookupProperties = lookupProperties;
+        this.retryBudget = new RetryBudget(lookupProperties.getRetryBudget().getRatio(),
+                lookupProperties.getRetryBudget().getMaxBalance());
+        this.meterRegistry = meterRegistry;
+    }
     
+    /**
+     * Returns the product's catalogue data (name and price), served from the local {@link ProductReplica} when
+     * possible. Stock is never included: it is only known for certain once {@link #reserveStock} has taken it.
+     */
     public ProductDto getProductById(String productId) {
-        log.info("Fetching product information for product ID: {}", productId);
-        
-        return webClient.get()
+        return productReplica.get(productId)
+                .map(ProductServiceClient::withoutStock)
+                .orElseGet(() -> {
+                    log.info("Fetching product information for product ID: {}", productId);
+                    
+                    return fetchProductById(productId)
+                            .map(ProductServiceClient::withoutStock)
+                            .block();
+                });
+    }
+    
+    /**
+     * Fetches the product, including its current stock, from product-service. Completes empty if the product does not exist, and fails with
+     * {@link ProductServiceUnavailableException} if product-service could not answer.
+     */
+    public Mono<ProductDto> fetchProductById(String productId) {
+        return idempotent(CallType.BY_ID, () -> webClient.get()
                 .uri(productServiceUrl + "/api/products/{id}", productId)
                 .retrieve()
                 .bodyToMono(ProductDto.class)
+                // A successful answer, so it must complete the call before the circuit breaker sees it
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()));
+    }
+
+    /**
+     * Atomically takes the line items' quantities off product-service stock, all or nothing, and returns
+     * the reserved products (with their remaining stock). Fails with the same errors order validation
+     * raises if a product does not exist or does not have enough stock left. Keyed by {@code reservationId}:
+     * product-service makes a reservation at most once per key, so a call repeated after a timeout cannot take
+     * the stock twice, and {@link #releaseStock} can give it back even if the answer never arrived. For the same
+     * reason the call is retried and hedged like a lookup, per {@code product-service.lookup.reservation}.
+     */
+    public Mono<Map<String, ProductDto>> reserveStock(String reservationId, List<OrderLineItemDto> items) {
+        log.info("Reserving stock for {} line items", items.size());
+
+        return idempotent(CallType.RESERVATION, () -> webClient.post()
+                .uri(productServiceUrl + "/api/products/reservations")
+                .bodyValue(reservationRequest(reservationId, items))
+                .retrieve()
+                .onStatus(status -> status == HttpStatus.CONFLICT, response -> response
+                        .bodyToMono(StockReservationFailure.class)
+                        .map(ProductServiceClient::reservationError))
+                .bodyToFlux(ProductDto.class)
+                .collectMap(ProductDto::getId));
+    }
+
+    /**
+     * Gives back the given items out of the stock taken by {@link #reserveStock} under {@code reservationId}, at most
+     * once. Failures are logged rather than propagated, so a release never masks the error that made it necessary.
+     * Not subject to the circuit breaker or bulkhead: compensation is attempted even while product-service calls are
+     * being shed.
+     */
+    public Mono<Void> releaseStock(String reservationId, List<OrderLineItemDto> items) {
+        return observed(CallType.RELEASE, webClient.post()
+                .uri(productServiceUrl + "/api/products/reservations/release")
+                .bodyValue(reservationRequest(reservationId, items))
+                .retrieve()
+                .toBodilessEntity()
+                .then())
                 .onErrorResume(e -> {
-                    log.error("Error fetching product with ID: {}, Error: {}", productId, e.getMessage());
+                    log.error("Error releasing stock for line items: {}, Error: {}", items, e.getMessage());
                     return Mono.empty();
+                });
+    }
+
+    private static ProductDto withoutStock(ProductDto product) {
+        return ProductDto.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .build();
+    }
+
+    private static Map<String, Object> reservationRequest(String reservationId, List<OrderLineItemDto> items) {
+        return Map.of("reservationId", reservationId, "items", items);
+    }
+
+    /**
+     * Runs an idempotent call through the bulkhead and circuit breaker, and turns anything that means
+     * product-service could not answer into a {@link ProductServiceUnavailableException}. Failed attempts are
+     * retried with jittered backoff and, if hedging is enabled, a second request is sent when the first is slower
+     * than the configured latency percentile, and the first answer wins. Retries and hedges both draw on the shared
+     * {@link RetryBudget}.
+     */
+    private <T> Mono<T> idempotent(CallType callType, Supplier<Mono<T>> request) {
+        ProductLookupProperties.CallPolicy policy = switch (callType) {
+            case BY_ID -> lookupProperties.getById();
+            case RESERVATION -> lookupProperties.getReservation();
+            case RELEASE -> throw new IllegalArgumentException(callType + " is not retried");
+        };
+        Timer latency = latencyTimer(callType, policy.getHedging());
+        
+        Supplier<Mono<Optional<T>>> attempt = () -> protect(Mono.defer(request))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .transform(call -> timed(call, latency))
+                .retryWhen(retrySpec(callType, policy.getRetry()));
+        
+        return observed(callType, Mono.defer(() -> {
+                    retryBudget.deposit();
+                    return policy.getHedging().isEnabled()
+                            ? hedged(callType, attempt, hedgeDelay(latency, policy.getHedging()))
+                            : attempt.get();
                 })
-                .block();
+                .flatMap(Mono::justOrEmpty)
+                .onErrorMap(UNAVAILABLE, ProductServiceClient::unavailable));
+    }
+
+    private <T> Mono<Optional<T>> hedged(CallType callType, Supplier<Mono<Optional<T>>> attempt, Duration delay) {
+        Mono<Optional<T>> hedge = Mono.delay(delay)
+                .filter(tick -> spendBudget(callType, "hedge"))
+                .flatMap(tick -> attempt.get())
+                // The primary request decides the outcome if the hedge cannot answer
+                .onErrorResume(e -> Mono.empty());
+        
+        // Whichever answers first wins and the other request is cancelled
+        return Flux.merge(attempt.get(), hedge).next();
+    }
+
+    private Retry retrySpec(CallType callType, ProductLookupProperties.Retry retry) {
+        return Retry.backoff(retry.getMaxAttempts() - 1, retry.getBackoff())
+                .maxBackoff(retry.getMaxBackoff())
+                .jitter(retry.getJitter())
+                // Calls shed by the breaker or bulkhead are not retried
+                .filter(e -> FAILURES.test(e) && spendBudget(callType, "retry"))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private boolean spendBudget(CallType callType, String kind) {
+        boolean granted = retryBudget.tryWithdraw();
+        Counter.builder("product.service.client.extra.requests")
+                .description("Retries and hedged requests to product-service, and those denied by the retry budget")
+                .tag("call", callType.tag)
+                .tag("kind", kind)
+                .tag("outcome", granted ? "sent" : "budget_exhausted")
+                .register(meterRegistry)
+                .increment();
+        return granted;
+    }
+
+    private Timer latencyTimer(CallType callType, ProductLookupProperties.Hedging hedging) {
+        return Timer.builder("product.service.client.latency")
+                .description("Latency of successful product-service requests that may be retried or hedged")
+                .tag("call", callType.tag)
+                .publishPercentiles(hedging.getPercentile())
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Times a call as the caller sees it, including retries, hedges and time spent waiting for the bulkhead, as
+     * {@code product.service.client.requests} tagged with the call and its outcome.
+     */
+    private <T> Mono<T> observed(CallType callType, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(value -> recordCall(callType, "success", start))
+                    .doOnError(e -> recordCall(callType, outcome(e), start))
+                    .doOnCancel(() -> recordCall(callType, "cancelled", start));
+        });
+    }
+
+    private void recordCall(CallType callType, String outcome, long start) {
+        Timer.builder("product.service.client.requests")
+                .description("Duration of calls to product-service, including retries and hedged requests")
+                .tag("call", callType.tag)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    // rejected: product-service refused the reservation; shed: the circuit breaker or bulkhead did not let the call out
+    private static String outcome(Throwable e) {
+        if (e instanceof StockReservationRejectedException) {
+            return "rejected";
+        }
+        Throwable cause = e instanceof ProductServiceUnavailableException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof CallNotPermittedException || cause instanceof BulkheadFullException) {
+            return "shed";
+        }
+        return "error";
+    }
+
+    private static <T> Mono<T> timed(Mono<T> call, Timer latency) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnSuccess(value -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private static Duration hedgeDelay(Timer latency, ProductLookupProperties.Hedging hedging) {
+        ValueAtPercentile[] percentiles = latency.takeSnapshot().percentileValues();
+        if (percentiles.length == 0 || percentiles[0].value() <= 0) {
+            return hedging.getMaxDelay();
+        }
+        
+        Duration observed = Duration.ofNanos((long) percentiles[0].value(TimeUnit.NANOSECONDS));
+        if (observed.compareTo(hedging.getMinDelay()) < 0) {
+            return hedging.getMinDelay();
+        }
+        return observed.compareTo(hedging.getMaxDelay()) > 0 ? hedging.getMaxDelay() : observed;
+    }
+
+    private <T> Mono<T> protect(Mono<T> call) {
+        return call
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead));
+    }
+
+    private static ProductServiceUnavailableException unavailable(Throwable e) {
+        log.error("product-service call failed: {}", e.getMessage());
+        return new ProductServiceUnavailableException("product-service is unavailable: " + e.getMessage(), e);
+    }
+
+    private static RuntimeException reservationError(StockReservationFailure failure) {
+        return new StockReservationRejectedException(failure.getProductId(), failure.getReason());
     }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.dto.StockReservationFailure;
+import com.example.orderservice.model.Money;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductServiceClientTest {
+
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductReplica productReplica = new ProductReplica(meterRegistry, 100);
+
+    private CircuitBreaker circuitBreaker = CircuitBreaker.of("product-service", CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .recordException(new ProductServiceFailurePredicate())
+            .build());
+    private Bulkhead bulkhead = Bulkhead.ofDefaults("product-service");
+    private ProductLookupProperties lookupProperties = noRetries();
+
+    private static ProductLookupProperties noRetries() {
+        ProductLookupProperties properties = new ProductLookupProperties();
+        properties.getById().getRetry().setMaxAttempts(1);
+        properties.getReservation().getRetry().setMaxAttempts(1);
+        return properties;
+    }
+
+    private ProductServiceClient client(Function<ClientRequest, Mono<ClientResponse>> exchange) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return exchange.apply(request);
+                })
+                .build();
+
+        ProductServiceClient client = new ProductServiceClient(webClient, productReplica, circuitBreaker, bulkhead,
+                lookupProperties, meterRegistry);
+        ReflectionTestUtils.setField(client, "productServiceUrl", "http://product-service");
+        return client;
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+
+    private static String productJson(String id) {
+        return "{\"id\":\"" + id + "\",\"name\":\"Product " + id + "\",\"price\":10.99,\"stock\":5}";
+    }
+
+    @Test
+    void shouldLeaveStockOutOfCatalogueData() {
+        ProductServiceClient client = client(request -> json(productJson("1")));
+
+        ProductDto product = client.getProductById("1");
+
+        assertEquals(1, requests.size());
+        assertEquals("Product 1", product.getName());
+        assertEquals(Money.of(new BigDecimal("10.99")), product.getPrice());
+        assertNull(product.getStock());
+    }
+
+    @Test
+    void shouldServeCatalogueDataFromConnectedReplica() {
+        ProductServiceClient client = client(request -> json(productJson("1")));
+        productReplica.apply(ProductDto.builder().id("1").name("Renamed").price(Money.of(new BigDecimal("12.99"))).stock(3).build());
+
+        assertEquals("Product 1", client.getProductById("1").getName());
+        productReplica.connected();
+        ProductDto replicated = client.getProductById("1");
+
+        assertEquals(1, requests.size());
+        assertEquals("Renamed", replicated.getName());
+        assertNull(replicated.getStock());
+    }
+
+    @Test
+    void shouldReturnCurrentStockFromLookup() {
+        ProductServiceClient client = client(request -> json(productJson("1")));
+
+        ProductDto product = client.fetchProductById("1").block();
+
+        assertEquals(5, product.getStock());
+    }
+
+    @Test
+    void shouldReserveStockWithSingleCall() {
+        ProductServiceClient client = client(request -> json("[" + productJson("1") + "," + productJson("2") + "]"));
+
+        Map<String, ProductDto> products = client.reserveStock("order-1", List.of(
+                new OrderLineItemDto("1", 2), new OrderLineItemDto("2", 1))).block();
+
+        assertEquals(1, requests.size());
+        assertEquals(HttpMethod.POST, requests.get(0).method());
+        assertEquals("/api/products/reservations", requests.get(0).url().getPath());
+        assertEquals(2, products.size());
+    }
+
+    @Test
+    void shouldTranslateRejectedReservation() {
+        ProductServiceClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.CONFLICT)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("{\"productId\":\"1\",\"reason\":\"INSUFFICIENT_STOCK\"}")
+                        .build()));
+
+        StockReservationRejectedException exception = assertThrows(StockReservationRejectedException.class,
+                () -> client.reserveStock("order-1", List.of(new OrderLineItemDto("1", 200))).block());
+
+        assertEquals("Insufficient stock for product: 1", exception.getMessage());
+        assertEquals(StockReservationFailure.Reason.INSUFFICIENT_STOCK, exception.getReason());
+        assertEquals(1, callTimer("reservation", "rejected").count());
+    }
+
+    @Test
+    void shouldNotPropagateReleaseFailures() {
+        ProductServiceClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+
+        client.releaseStock("order-1", List.of(new OrderLineItemDto("1", 2))).block();
+
+        assertEquals("/api/products/reservations/release", requests.get(0).url().getPath());
+    }
+
+    @Test
+    void shouldReportUnavailableInsteadOfMissingProduct() {
+        ProductServiceClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+
+        assertThrows(ProductServiceUnavailableException.class, () -> client.fetchProductById("1").block());
+    }
+
+    @Test
+    void shouldNotCountUnknownProductsAsFailures() {
+        ProductServiceClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build()));
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(client.fetchProductById(String.valueOf(i)).block());
+        }
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void shouldFailFastOnceCircuitBreakerIsOpen() {
+        ProductServiceClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ProductServiceUnavailableException.class, () -> client.fetchProductById("1").block());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        assertThrows(ProductServiceUnavailableException.class, () -> client.fetchProductById("1").block());
+        assertThrows(ProductServiceUnavailableException.class,
+                () -> client.reserveStock("order-1", List.of(new OrderLineItemDto("1", 1))).block());
+        assertEquals(4, requests.size());
+    }
+
+    @Test
+    void shouldTimeCallsByOutcome() {
+        ProductServiceClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ProductServiceUnavailableException.class, () -> client.fetchProductById("1").block());
+        }
+        assertThrows(ProductServiceUnavailableException.class,
+                () -> client.reserveStock("order-1", List.of(new OrderLineItemDto("1", 1))).block());
+
+        assertEquals(4, callTimer("by-id", "error").count());
+        assertEquals(1, callTimer("reservation", "shed").count());
+        assertNull(meterRegistry.find("product.service.client.requests").tag("outcome", "success").timer());
+    }
+
+    private Timer callTimer(String call, String outcome) {
+        return meterRegistry.get("product.service.client.requests")
+                .tag("call", call)
+                .tag("outcome", outcome)
+                .timer();
+    }
+
+    @Test
+    void shouldRejectCallsBeyondBulkhead() {
+        bulkhead = Bulkhead.of("product-service", BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        ProductServiceClient client = client(request -> json(productJson("1")).delayElement(Duration.ofMillis(200)));
+
+        assertThrows(ProductServiceUnavailableException.class,
+                () -> Flux.merge(client.fetchProductById("1"), client.fetchProductById("2")).blockLast());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void shouldRetryFailedLookup() {
+        lookupProperties.getById().getRetry().setMaxAttempts(3);
+        lookupProperties.getById().getRetry().setBackoff(Duration.ofMillis(1));
+        AtomicInteger attempts = new AtomicInteger();
+        ProductServiceClient client = client(request -> attempts.incrementAndGet() == 1
+                        ? Mono.just(ClientResponse.create(HttpStatus.BAD_GATEWAY).build())
+                        : json(productJson("1")));
+
+        ProductDto product = client.fetchProductById("1").block();
+
+        assertEquals("1", product.getId());
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void shouldStopRetryingWhenBudgetIsSpent() {
+        lookupProperties.getById().getRetry().setMaxAttempts(5);
+        lookupProperties.getById().getRetry().setBackoff(Duration.ofMillis(1));
+        lookupProperties.getRetryBudget().setRatio(0);
+        lookupProperties.getRetryBudget().setMaxBalance(2);
+        ProductServiceClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.BAD_GATEWAY).build()));
+
+        assertThrows(ProductServiceUnavailableException.class, () -> client.fetchProductById("1").block());
+        assertThrows(ProductServiceUnavailableException.class, () -> client.fetchProductById("2").block());
+
+        // Two retries for the first lookup, then its third and the second lookup's first are denied
+        assertEquals(4, requests.size());
+        assertEquals(2.0, meterRegistry.get("product.service.client.extra.requests")
+                .tags("kind", "retry", "outcome", "budget_exhausted").counter().count());
+    }
+
+    @Test
+    void shouldRetryStockReservationUnderSameKey() {
+        lookupProperties.getReservation().getRetry().setMaxAttempts(3);
+        lookupProperties.getReservation().getRetry().setBackoff(Duration.ofMillis(1));
+        AtomicInteger attempts = new AtomicInteger();
+        ProductServiceClient client = client(request -> attempts.incrementAndGet() == 1
+                        ? Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build())
+                        : json("[" + productJson("1") + "]"));
+
+        Map<String, ProductDto> products = client.reserveStock("order-1", List.of(new OrderLineItemDto("1", 1))).block();
+
+        assertEquals(1, products.size());
+        assertEquals(2, requests.size());
+        assertTrue(requests.stream().allMatch(request -> request.url().getPath().equals("/api/products/reservations")));
+    }
+
+    @Test
+    void shouldNotRetryRejectedStockReservation() {
+        lookupProperties.getReservation().getRetry().setMaxAttempts(3);
+        ProductServiceClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.CONFLICT)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("{\"productId\":\"1\",\"reason\":\"INSUFFICIENT_STOCK\"}")
+                        .build()));
+
+        assertThrows(StockReservationRejectedException.class,
+                () -> client.reserveStock("order-1", List.of(new OrderLineItemDto("1", 1))).block());
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void shouldNotRetryStockRelease() {
+        lookupProperties.getReservation().getRetry().setMaxAttempts(3);
+        ProductServiceClient client = client(request -> Mono.just(ClientResponse.create(HttpStatus.BAD_GATEWAY).build()));
+
+        client.releaseStock("order-1", List.of(new OrderLineItemDto("1", 1))).block();
+
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void shouldHedgeSlowLookupAndTakeFirstAnswer() {
+        ProductLookupProperties.Hedging hedging = lookupProperties.getById().getHedging();
+        hedging.setEnabled(true);
+        hedging.setMaxDelay(Duration.ofMillis(50));
+        AtomicInteger attempts = new AtomicInteger();
+        ProductServiceClient client = client(request -> attempts.incrementAndGet() == 1
+                        ? json(productJson("1")).delayElement(Duration.ofSeconds(5))
+                        : json(productJson("1")));
+
+        long start = System.nanoTime();
+        ProductDto product = client.fetchProductById("1").block();
+
+        assertEquals("1", product.getId());
+        assertEquals(2, requests.size());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    @Test
+    void shouldNotHedgeFastLookup() {
+        lookupProperties.getById().getHedging().setEnabled(true);
+        ProductServiceClient client = client(request -> json(productJson("1")));
+
+        client.fetchProductById("1").block();
+
+        assertEquals(1, requests.size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.orderservice.client;
+
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.function.Predicate;
+
+/**
+ * Errors that mean product-service itself is unhealthy: no response (connection failures and timeouts)
+ * or a 5xx response. Business outcomes such as an unknown product or a rejected reservation are not
+ * failures. Used as the circuit breaker's {@code record-failure-predicate}.
+ */
+public class ProductServiceFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable e) {
+        return e instanceof WebClientRequestException
+                || e instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.orderservice.client;
+
+/**
+ * Token bucket shared by all retries and hedged requests to product-service. Every lookup deposits a
+ * fraction of a token and every extra request spends a whole one, so extra requests stay a bounded share of
+ * the traffic: when product-service is down, retries cannot multiply the load on it.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxBalance;
+    private double balance;
+
+    public RetryBudget(double ratio, double maxBalance) {
+        this.ratio = ratio;
+        this.maxBalance = maxBalance;
+        this.balance = maxBalance;
+    }
+
+    public synchronized void deposit() {
+        balance = Math.min(maxBalance, balance + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (balance < 1) {
+            return false;
+        }
+        balance -= 1;
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.StockReservationFailure;
+import lombok.Getter;
+
+/**
+ * product-service refused a stock reservation because a product does not exist or is short on stock.
+ * Unlike {@link ProductServiceUnavailableException}, repeating the same reservation will not help.
+ */
+@Getter
+public class StockReservationRejectedException extends RuntimeException {
+
+    private final String productId;
+    private final StockReservationFailure.Reason reason;
+
+    public StockReservationRejectedException(String productId, StockReservationFailure.Reason reason) {
+        super(switch (reason) {
+            case NOT_FOUND -> "Product not found with id: " + productId;
+            case INSUFFICIENT_STOCK -> "Insufficient stock for product: " + productId;
+        });
+        this.productId = productId;
+        this.reason = reason;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.model.Money;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Stores {@link Money} as {@code {minorUnits: <int64>, currency: "USD"}}, so that line item prices and order totals
+ * sort numerically and sum exactly in MongoDB. Amounts written before, when they were {@link BigDecimal}s stored as
+ * strings, are still read, in {@link Money#DEFAULT_CURRENCY}. Their scale was never limited, so one with more decimal
+ * places than the currency has minor units is rounded half up rather than failing every read that includes it.
+ */
+@Configuration
+public class MongoConversionsConfig {
+
+    static final String MINOR_UNITS = "minorUnits";
+    static final String CURRENCY = "currency";
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                new MoneyWriter(), new MoneyReader(), new LegacyMoneyReader(), new Decimal128MoneyReader()));
+    }
+
+    private static Money legacy(BigDecimal amount) {
+        return Money.of(amount.setScale(Money.DEFAULT_CURRENCY.getDefaultFractionDigits(), RoundingMode.HALF_UP));
+    }
+
+    @WritingConverter
+    static class MoneyWriter implements Converter<Money, Document> {
+        @Override
+        public Document convert(Money money) {
+            return new Document(MINOR_UNITS, money.minorUnits()).append(CURRENCY, money.currency().getCurrencyCode());
+        }
+    }
+
+    @ReadingConverter
+    static class MoneyReader implements Converter<Document, Money> {
+        @Override
+        public Money convert(Document document) {
+            return new Money(((Number) document.get(MINOR_UNITS)).longValue(),
+                    Currency.getInstance(document.getString(CURRENCY)));
+        }
+    }
+
+    @ReadingConverter
+    static class LegacyMoneyReader implements Converter<String, Money> {
+        @Override
+        public Money convert(String amount) {
+            return legacy(new BigDecimal(amount));
+        }
+    }
+
+    @ReadingConverter
+    static class Decimal128MoneyReader implements Converter<Decimal128, Money> {
+        @Override
+        public Money convert(Decimal128 amount) {
+            return legacy(amount.bigDecimalValue());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.orderservice.config;
+
+import com.example.orderservice.model.Money;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MongoConversionsConfigTest {
+
+    @Test
+    void shouldStoreMoneyAsMinorUnitsAndCurrency() {
+        Document stored = new MongoConversionsConfig.MoneyWriter().convert(Money.of(new BigDecimal("10.99")));
+
+        assertEquals(new Document("minorUnits", 1099L).append("currency", "USD"), stored);
+        assertEquals(Money.of(new BigDecimal("10.99")), new MongoConversionsConfig.MoneyReader().convert(stored));
+    }
+
+    @Test
+    void shouldReadLegacyAmounts() {
+        assertEquals(Money.of(new BigDecimal("10.99")), new MongoConversionsConfig.LegacyMoneyReader().convert("10.99"));
+        assertEquals(Money.of(new BigDecimal("10.99")),
+                new MongoConversionsConfig.Decimal128MoneyReader().convert(new Decimal128(new BigDecimal("10.99"))));
+    }
+
+    @Test
+    void shouldRoundLegacyAmountsWithMoreDecimalsThanMinorUnits() {
+        assertEquals(Money.of(new BigDecimal("20.00")), new MongoConversionsConfig.LegacyMoneyReader().convert("19.999"));
+        assertEquals(Money.of(new BigDecimal("19.99")), new MongoConversionsConfig.LegacyMoneyReader().convert("19.9949"));
+        assertEquals(Money.of(new BigDecimal("20.00")),
+                new MongoConversionsConfig.Decimal128MoneyReader().convert(new Decimal128(new BigDecimal("19.995"))));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.orderservice.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Circuit breaker and bulkhead for product-service calls, configured under
+ * {@code resilience4j.*.instances.product-service}. Breaker state and call outcomes are exported as the
+ * {@code resilience4j_circuitbreaker_*} metrics, bulkhead capacity as {@code resilience4j_bulkhead_*},
+ * and calls shed by either as {@code product_service_client_rejected_total}.
+ */
+@Configuration
+public class ProductServiceResilienceConfig {
+
+    public static final String INSTANCE = "product-service";
+
+    @Bean
+    public CircuitBreaker productServiceCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                       MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCE);
+        Counter rejected = rejectedCounter(meterRegistry, "circuit_breaker");
+        circuitBreaker.getEventPublisher().onCallNotPermitted(event -> rejected.increment());
+        return circuitBreaker;
+    }
+
+    @Bean
+    public Bulkhead productServiceBulkhead(BulkheadRegistry bulkheadRegistry, MeterRegistry meterRegistry) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(INSTANCE);
+        Counter rejected = rejectedCounter(meterRegistry, "bulkhead");
+        bulkhead.getEventPublisher().onCallRejected(event -> rejected.increment());
+        return bulkhead;
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("product.service.client.rejected")
+                .description("product-service calls rejected without being sent")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
\ No newline at end of file
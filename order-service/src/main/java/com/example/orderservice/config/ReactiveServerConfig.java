@@ -0,0 +1,21 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Tomcat is on the classpath for the default servlet mode, and Spring Boot would otherwise prefer it
+ * for a reactive application too. Pin the {@code reactive} profile to Reactor Netty so requests are
+ * served by its small event-loop pool rather than by Tomcat worker threads.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
\ No newline at end of file
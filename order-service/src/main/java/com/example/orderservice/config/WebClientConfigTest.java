@@ -0,0 +1,97 @@
+package com.example.orderservice.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebClientConfigTest {
+
+    private final WebClientConfig config = new WebClientConfig();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void startSlowServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        release.countDown();
+        server.stop(0);
+        connectionProvider.dispose();
+    }
+
+    private WebClient webClient(int maxConnections, int pendingAcquireMaxCount, Duration responseTimeout) {
+        connectionProvider = config.productServiceConnectionProvider(maxConnections, pendingAcquireMaxCount,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ZERO);
+        return config.webClient(WebClient.builder(), connectionProvider, Duration.ofSeconds(1), responseTimeout, false);
+    }
+
+    private String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    @Test
+    void shouldFailSlowResponsesAfterResponseTimeout() {
+        WebClient webClient = webClient(10, 10, Duration.ofMillis(200));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> webClient.get().uri(url()).retrieve().toBodilessEntity().block());
+
+        // The server holds the response for seconds, so only the client's timeout can end the request early.
+        // Checked by cause rather than elapsed time, which also includes Netty's start-up on the first request.
+        assertInstanceOf(ReadTimeoutException.class, rootCause(e));
+    }
+
+    @Test
+    void shouldRejectRequestsBeyondPendingAcquireLimit() {
+        WebClient webClient = webClient(1, 1, Duration.ofSeconds(10));
+
+        // One request holds the only connection and one waits for it; the third must not queue
+        List<Throwable> errors = Flux.range(0, 3)
+                .flatMap(i -> webClient.get().uri(url()).retrieve().toBodilessEntity()
+                        .then(Mono.<Throwable>empty())
+                        .onErrorResume(Mono::just))
+                .take(1)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(1, errors.size());
+        assertTrue(rootCause(errors.get(0)).getMessage().contains("Pending acquire queue has reached its maximum size"));
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null && e.getCause() != e) {
+            e = e.getCause();
+        }
+        return e;
+    }
+}
\ No newline at end of file
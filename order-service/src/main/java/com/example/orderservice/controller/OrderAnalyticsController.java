@@ -0,0 +1,52 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.dto.DailyRevenue;
+import com.example.orderservice.dto.ProductQuantity;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.service.OrderAnalyticsService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order analytics over {@code [from, to)}, both ISO date-times, e.g.
+ * {@code ?from=2024-06-01T00:00:00&to=2024-07-01T00:00:00}.
+ */
+@RestController
+@RequestMapping("/api/orders/analytics")
+@RequiredArgsConstructor
+@Profile("!reactive")
+public class OrderAnalyticsController {
+
+    private final OrderAnalyticsService orderAnalyticsService;
+
+    @GetMapping("/revenue")
+    @ResponseStatus(HttpStatus.OK)
+    public List<DailyRevenue> getRevenuePerDay(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderAnalyticsService.getRevenuePerDay(from, to);
+    }
+
+    @GetMapping("/top-products")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ProductQuantity> getTopProducts(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+        return orderAnalyticsService.getTopProducts(from, to, limit);
+    }
+
+    @GetMapping("/status-counts")
+    @ResponseStatus(HttpStatus.OK)
+    public Map<OrderStatus, Long> getOrderCountsByStatus(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return orderAnalyticsService.getOrderCountsByStatus(from, to);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.dto.DailyRevenue;
+import com.example.orderservice.dto.ProductQuantity;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.service.OrderAnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OrderAnalyticsController.class)
+public class OrderAnalyticsControllerTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 6, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 7, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Test
+    void shouldGetRevenuePerDay() throws Exception {
+        when(orderAnalyticsService.getRevenuePerDay(FROM, TO)).thenReturn(List.of(
+                new DailyRevenue(LocalDate.of(2024, 6, 3), Money.of(new BigDecimal("1234.50")), 12)));
+
+        mockMvc.perform(get("/api/orders/analytics/revenue")
+                        .param("from", "2024-06-01T00:00:00").param("to", "2024-07-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].day").value("2024-06-03"))
+                .andExpect(jsonPath("$[0].revenue").value(1234.5))
+                .andExpect(jsonPath("$[0].orders").value(12));
+    }
+
+    @Test
+    void shouldGetTopProducts() throws Exception {
+        when(orderAnalyticsService.getTopProducts(FROM, TO, 3)).thenReturn(List.of(
+                new ProductQuantity("1", "Product 1", 40, 25)));
+
+        mockMvc.perform(get("/api/orders/analytics/top-products")
+                        .param("from", "2024-06-01T00:00:00").param("to", "2024-07-01T00:00:00").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value("1"))
+                .andExpect(jsonPath("$[0].quantity").value(40));
+    }
+
+    @Test
+    void shouldRejectTooManyTopProducts() throws Exception {
+        mockMvc.perform(get("/api/orders/analytics/top-products")
+                        .param("from", "2024-06-01T00:00:00").param("to", "2024-07-01T00:00:00").param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderAnalyticsService, never()).getTopProducts(any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldGetOrderCountsByStatus() throws Exception {
+        Map<OrderStatus, Long> counts = new LinkedHashMap<>();
+        counts.put(OrderStatus.PENDING, 0L);
+        counts.put(OrderStatus.PLACED, 7L);
+        when(orderAnalyticsService.getOrderCountsByStatus(FROM, TO)).thenReturn(counts);
+
+        mockMvc.perform(get("/api/orders/analytics/status-counts")
+                        .param("from", "2024-06-01T00:00:00").param("to", "2024-07-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.PENDING").value(0))
+                .andExpect(jsonPath("$.PLACED").value(7));
+    }
+}
@@ -1,26 +1,80 @@
 package com.example.orderservice.controller;
 
+import com.example.common.outbox.ServerSentEventSink;
+import com.example.orderservice.dto.BulkOrderRequest;
+import com.example.orderservice.dto.BulkOrderResponse;
+import com.example.orderservice.dto.OrderPageResponse;
 import com.example.orderservice.dto.OrderRequest;
 import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderSummary;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.service.BulkOrderService;
+import com.example.orderservice.service.IdempotencyStore;
+import com.example.orderservice.service.OrderQueueProperties;
 import com.example.orderservice.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
+@Profile("!reactive")
 public class OrderController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final OrderService orderService;
+    private final BulkOrderService bulkOrderService;
+    private final IdempotencyStore idempotencyStore;
+    private final ServerSentEventSink<OutboxEvent> serverSentEventSink;
+    private final OrderQueueProperties orderQueueProperties;
+    private final ObjectMapper objectMapper;
 
+    // 201 with the placed order, or 202 with a PENDING order when order-queue.async is on
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public OrderResponse createOrder(@Valid @RequestBody OrderRequest orderRequest) {
-        return orderService.createOrder(orderRequest);
+    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest orderRequest,
+                                                     @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false)
+                                                     @Size(min = 1, max = 255) String idempotencyKey) {
+        Supplier<OrderResponse> create = orderQueueProperties.isAsync()
+                ? () -> orderService.acceptOrder(orderRequest)
+                : () -> orderService.createOrder(orderRequest);
+        OrderResponse order = idempotencyKey == null
+                ? create.get()
+                : idempotencyStore.execute(idempotencyKey, orderRequest, create);
+        
+        if (order.getOrderStatus() == OrderStatus.PENDING) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/" + order.getId()))
+                    .body(order);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+    }
+
+    // Always 200: each order's outcome is reported in its own result
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.OK)
+    public BulkOrderResponse createOrders(@Valid @RequestBody BulkOrderRequest bulkOrderRequest) {
+        return bulkOrderService.createOrders(bulkOrderRequest.getOrders());
     }
 
     @GetMapping
@@ -29,6 +83,37 @@ public class OrderController {
         return orderService.getAllOrders();
     }
     
+    @GetMapping(params = "limit")
+    @ResponseStatus(HttpStatus.OK)
+    public OrderPageResponse getOrdersPage(@RequestParam(required = false) String after,
+                                           @RequestParam @Min(1) @Max(1000) int limit) {
+        return orderService.getOrdersPage(after, limit);
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        ObjectWriter writer = objectMapper.writerFor(OrderResponse.class);
+        StreamingResponseBody body = outputStream -> orderService.streamAllOrders(order -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(order));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    // Every order change from now on; a reconnecting client resumes after the Last-Event-ID it saw
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<OrderResponse>> streamEvents(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return serverSentEventSink.events(lastEventId)
+                .map(event -> ServerSentEvent.builder(event.getOrder())
+                        .id(String.valueOf(event.getSequence()))
+                        .event(event.getType().name())
+                        .build());
+    }
+    
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public OrderResponse getOrderById(@PathVariable String id) {
@@ -40,4 +125,22 @@ public class OrderController {
     public List<OrderResponse> getOrdersByCustomerEmail(@PathVariable String email) {
         return orderService.getOrdersByCustomerEmail(email);
     }
+    
+    // Newest first; served from the customerEmail_orderDate index
+    @GetMapping(value = "/customer/{email}", params = "limit")
+    @ResponseStatus(HttpStatus.OK)
+    public List<OrderResponse> getOrdersByCustomerEmailPage(@PathVariable String email,
+                                                            @RequestParam(defaultValue = "0") @Min(0) int page,
+                                                            @RequestParam @Min(1) @Max(1000) int limit) {
+        return orderService.getOrdersByCustomerEmail(email, page, limit);
+    }
+    
+    // Newest first, without line items
+    @GetMapping(value = "/customer/{email}", params = "view=summary")
+    @ResponseStatus(HttpStatus.OK)
+    public List<OrderSummary> getOrderSummariesByCustomerEmail(@PathVariable String email,
+                                                               @RequestParam(defaultValue = "0") @Min(0) int page,
+                                                               @RequestParam(required = false) @Min(1) @Max(1000) Integer limit) {
+        return orderService.getOrderSummariesByCustomerEmail(email, page, limit);
+    }
 }
\ No newline at end of file
@@ -1,10 +1,21 @@
 package com.example.orderservice.controller;
 
+import com.example.common.outbox.ServerSentEventSink;
+import com.example.orderservice.client.ProductServiceUnavailableException;
+import com.example.orderservice.dto.BulkOrderRequest;
+import com.example.orderservice.dto.BulkOrderResponse;
 import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderPageResponse;
 import com.example.orderservice.dto.OrderRequest;
 import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderSummary;
+import com.example.orderservice.model.Money;
 import com.example.orderservice.model.OrderLineItem;
 import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.service.BulkOrderService;
+import com.example.orderservice.service.IdempotencyStore;
+import com.example.orderservice.service.OrderQueueProperties;
 import com.example.orderservice.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -13,6 +24,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -21,10 +34,21 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(OrderController.class)
@@ -36,6 +60,18 @@ public class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
+    @MockBean
+    private BulkOrderService bulkOrderService;
+
+    @MockBean
+    private OrderQueueProperties orderQueueProperties;
+
+    @MockBean
+    private ServerSentEventSink<OutboxEvent> serverSentEventSink;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -55,7 +91,7 @@ public class OrderControllerTest {
         OrderLineItem orderLineItem = OrderLineItem.builder()
                 .productId("1")
                 .productName("Product 1")
-                .price(new BigDecimal("10.99"))
+                .price(Money.of(new BigDecimal("10.99")))
                 .quantity(2)
                 .build();
 
@@ -64,7 +100,7 @@ public class OrderControllerTest {
                 .customerName("John Doe")
                 .customerEmail("john@example.com")
                 .orderLineItems(List.of(orderLineItem))
-                .totalAmount(new BigDecimal("21.98"))
+                .totalAmount(Money.of(new BigDecimal("21.98")))
                 .orderDate(LocalDateTime.now())
                 .orderStatus(OrderStatus.PLACED)
                 .build();
@@ -98,14 +134,14 @@ public class OrderControllerTest {
         OrderLineItem orderLineItem1 = OrderLineItem.builder()
                 .productId("1")
                 .productName("Product 1")
-                .price(new BigDecimal("10.99"))
+                .price(Money.of(new BigDecimal("10.99")))
                 .quantity(2)
                 .build();
 
         OrderLineItem orderLineItem2 = OrderLineItem.builder()
                 .productId("2")
                 .productName("Product 2")
-                .price(new BigDecimal("15.99"))
+                .price(Money.of(new BigDecimal("15.99")))
                 .quantity(1)
                 .build();
 
@@ -114,7 +150,7 @@ public class OrderControllerTest {
                 .customerName("John Doe")
                 .customerEmail("john@example.com")
                 .orderLineItems(List.of(orderLineItem1))
-                .totalAmount(new BigDecimal("21.98"))
+                .totalAmount(Money.of(new BigDecimal("21.98")))
                 .orderDate(LocalDateTime.now())
                 .orderStatus(OrderStatus.PLACED)
                 .build();
@@ -124,7 +160,7 @@ public class OrderControllerTest {
                 .customerName("Jane Smith")
                 .customerEmail("jane@example.com")
                 .orderLineItems(List.of(orderLineItem2))
-                .totalAmount(new BigDecimal("15.99"))
+                .totalAmount(Money.of(new BigDecimal("15.99")))
                 .orderDate(LocalDateTime.now())
                 .orderStatus(OrderStatus.PLACED)
                 .build();
@@ -143,7 +179,7 @@ public class OrderControllerTest {
         OrderLineItem orderLineItem = OrderLineItem.builder()
                 .productId("1")
                 .productName("Product 1")
-                .price(new BigDecimal("10.99"))
+                .price(Money.of(new BigDecimal("10.99")))
                 .quantity(2)
                 .build();
 
@@ -152,7 +188,7 @@ public class OrderControllerTest {
                 .customerName("John Doe")
                 .customerEmail("john@example.com")
                 .orderLineItems(List.of(orderLineItem))
-                .totalAmount(new BigDecimal("21.98"))
+                .totalAmount(Money.of(new BigDecimal("21.98")))
                 .orderDate(LocalDateTime.now())
                 .orderStatus(OrderStatus.PLACED)
                 .build();
@@ -170,7 +206,7 @@ public class OrderControllerTest {
         OrderLineItem orderLineItem = OrderLineItem.builder()
                 .productId("1")
                 .productName("Product 1")
-                .price(new BigDecimal("10.99"))
+                .price(Money.of(new BigDecimal("10.99")))
                 .quantity(2)
                 .build();
 
@@ -179,7 +215,7 @@ public class OrderControllerTest {
                 .customerName("John Doe")
                 .customerEmail("john@example.com")
                 .orderLineItems(List.of(orderLineItem))
-                .totalAmount(new BigDecimal("21.98"))
+                .totalAmount(Money.of(new BigDecimal("21.98")))
                 .orderDate(LocalDateTime.now())
                 .orderStatus(OrderStatus.PLACED)
                 .build();
@@ -191,4 +227,213 @@ public class OrderControllerTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].customerEmail").value("john@example.com"));
     }
+    
+    @Test
+    void shouldGetCustomerOrdersPage() throws Exception {
+        OrderResponse orderResponse = OrderResponse.builder()
+                .id("1")
+                .customerEmail("john@example.com")
+                .orderLineItems(new ArrayList<>())
+                .build();
+        
+        when(orderService.getOrdersByCustomerEmail("john@example.com", 1, 20)).thenReturn(List.of(orderResponse));
+        
+        mockMvc.perform(get("/api/orders/customer/john@example.com").param("page", "1").param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value("1"));
+    }
+    
+    @Test
+    void shouldGetCustomerOrderSummaries() throws Exception {
+        OrderSummary summary = new OrderSummary("1", LocalDateTime.now(), OrderStatus.PLACED, Money.of(new BigDecimal("21.98")));
+        
+        when(orderService.getOrderSummariesByCustomerEmail("john@example.com", 0, null)).thenReturn(List.of(summary));
+        
+        mockMvc.perform(get("/api/orders/customer/john@example.com").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("1"))
+                .andExpect(jsonPath("$[0].totalAmount").value(21.98))
+                .andExpect(jsonPath("$[0].orderLineItems").doesNotExist());
+    }
+    
+    @Test
+    void shouldPageCustomerOrderSummaries() throws Exception {
+        when(orderService.getOrderSummariesByCustomerEmail("john@example.com", 2, 10)).thenReturn(List.of());
+        
+        mockMvc.perform(get("/api/orders/customer/john@example.com")
+                        .param("view", "summary").param("page", "2").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        
+        verify(orderService, never()).getOrdersByCustomerEmail(anyString(), anyInt(), anyInt());
+    }
+    
+    @Test
+    void shouldRejectNegativeCustomerOrdersPage() throws Exception {
+        mockMvc.perform(get("/api/orders/customer/john@example.com").param("page", "-1").param("limit", "20"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void shouldAcceptOrderWhenAsyncModeIsOn() throws Exception {
+        OrderRequest orderRequest = OrderRequest.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .orderLineItems(List.of(OrderLineItemDto.builder().productId("1").quantity(2).build()))
+                .build();
+        
+        when(orderQueueProperties.isAsync()).thenReturn(true);
+        when(orderService.acceptOrder(any(OrderRequest.class)))
+                .thenReturn(OrderResponse.builder().id("1").orderStatus(OrderStatus.PENDING).build());
+        
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/orders/1"))
+                .andExpect(jsonPath("$.orderStatus").value("PENDING"));
+        
+        verify(orderService, never()).createOrder(any(OrderRequest.class));
+    }
+    
+    @Test
+    void shouldCreateOrdersInBulk() throws Exception {
+        OrderRequest orderRequest = OrderRequest.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .orderLineItems(List.of(OrderLineItemDto.builder().productId("1").quantity(1).build()))
+                .build();
+        BulkOrderResponse bulkResponse = BulkOrderResponse.builder()
+                .created(1)
+                .failed(1)
+                .results(List.of(
+                        new BulkOrderResponse.Result(0, BulkOrderResponse.Status.CREATED, OrderResponse.builder().id("1").build(), null),
+                        new BulkOrderResponse.Result(1, BulkOrderResponse.Status.INVALID, null, "Customer name is required")))
+                .build();
+        
+        when(bulkOrderService.createOrders(anyList())).thenReturn(bulkResponse);
+        
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkOrderRequest(List.of(orderRequest, new OrderRequest())))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].order.id").value("1"))
+                .andExpect(jsonPath("$.results[1].status").value("INVALID"));
+    }
+    
+    @Test
+    void shouldRejectEmptyBulkOrderRequest() throws Exception {
+        mockMvc.perform(post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\":[]}"))
+                .andExpect(status().isBadRequest());
+        
+        verify(bulkOrderService, never()).createOrders(anyList());
+    }
+    
+    @Test
+    void shouldGetOrdersPage() throws Exception {
+        OrderResponse orderResponse = OrderResponse.builder()
+                .id("1")
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .orderLineItems(new ArrayList<>())
+                .totalAmount(Money.of(new BigDecimal("21.98")))
+                .orderStatus(OrderStatus.PLACED)
+                .build();
+        
+        when(orderService.getOrdersPage(isNull(), eq(1)))
+                .thenReturn(new OrderPageResponse(List.of(orderResponse), "1"));
+        
+        mockMvc.perform(get("/api/orders").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value("1"))
+                .andExpect(jsonPath("$.nextCursor").value("1"));
+    }
+    
+    @Test
+    void shouldRejectOutOfRangePageLimit() throws Exception {
+        mockMvc.perform(get("/api/orders").param("limit", "5000"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void shouldCreateOrderThroughIdempotencyStoreWhenKeyIsGiven() throws Exception {
+        OrderRequest orderRequest = OrderRequest.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .orderLineItems(List.of(OrderLineItemDto.builder().productId("1").quantity(2).build()))
+                .build();
+        
+        when(idempotencyStore.execute(eq("key-1"), any(OrderRequest.class), any()))
+                .thenReturn(OrderResponse.builder().id("1").customerName("John Doe").build());
+        
+        mockMvc.perform(post("/api/orders")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value("1"));
+        
+        verify(orderService, never()).createOrder(any(OrderRequest.class));
+    }
+    
+    @Test
+    void shouldRejectOversizedIdempotencyKey() throws Exception {
+        OrderRequest orderRequest = OrderRequest.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .orderLineItems(List.of(OrderLineItemDto.builder().productId("1").quantity(2).build()))
+                .build();
+        
+        mockMvc.perform(post("/api/orders")
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "k".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isBadRequest());
+        
+        verify(idempotencyStore, never()).execute(anyString(), any(OrderRequest.class), any());
+    }
+    
+    @Test
+    void shouldReturnServiceUnavailableWhenProductServiceIsDown() throws Exception {
+        OrderRequest orderRequest = OrderRequest.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .orderLineItems(List.of(OrderLineItemDto.builder().productId("1").quantity(2).build()))
+                .build();
+        
+        when(orderService.createOrder(any(OrderRequest.class)))
+                .thenThrow(new ProductServiceUnavailableException("product-service is unavailable", null));
+        
+        mockMvc.perform(post("/api/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orderRequest)))
+                .andExpect(status().isServiceUnavailable());
+    }
+    
+    @Test
+    void shouldStreamOrderEventsAfterTheLastEventId() throws Exception {
+        OrderResponse order = OrderResponse.builder().id("1").customerName("John Doe").orderStatus(OrderStatus.PLACED).build();
+        when(serverSentEventSink.events(9L)).thenReturn(Flux.just(OutboxEvent.builder()
+                .sequence(10L)
+                .type(OutboxEvent.Type.ORDER_PLACED)
+                .orderId("1")
+                .order(order)
+                .build()));
+        
+        MvcResult result = mockMvc.perform(get("/api/orders/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "9"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("id:10\nevent:ORDER_PLACED\ndata:"
+                        + objectMapper.writeValueAsString(order) + "\n\n"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.example.orderservice.controller;
+
+import com.example.common.outbox.ServerSentEventSink;
+import com.example.orderservice.dto.OrderPageResponse;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderSummary;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.service.IdempotencyStore;
+import com.example.orderservice.service.ReactiveOrderService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux variant of {@link OrderController}, active with the {@code reactive} profile.
+ */
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+@Profile("reactive")
+public class ReactiveOrderController {
+
+    private final ReactiveOrderService orderService;
+    private final IdempotencyStore idempotencyStore;
+    private final ServerSentEventSink<OutboxEvent> serverSentEventSink;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<OrderResponse> createOrder(@Valid @RequestBody OrderRequest orderRequest,
+                                           @RequestHeader(name = OrderController.IDEMPOTENCY_KEY_HEADER, required = false)
+                                           @Size(min = 1, max = 255) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return orderService.createOrder(orderRequest);
+        }
+        // The store claims keys with blocking MongoDB calls, so keyed requests run where blocking is allowed
+        return Mono.fromCallable(() -> idempotencyStore.execute(idempotencyKey, orderRequest,
+                        () -> orderService.createOrder(orderRequest).block()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<OrderResponse> getAllOrders() {
+        return orderService.getAllOrders();
+    }
+    
+    @GetMapping(params = "limit")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<OrderPageResponse> getOrdersPage(@RequestParam(required = false) String after,
+                                                 @RequestParam @Min(1) @Max(1000) int limit) {
+        return orderService.getOrdersPage(after, limit);
+    }
+    
+    // Each order is written as soon as it is read from the cursor, with back-pressure from the client
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<OrderResponse> streamAllOrders() {
+        return orderService.getAllOrders();
+    }
+    
+    // Every order change from now on; a reconnecting client resumes after the Last-Event-ID it saw
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<OrderResponse>> streamEvents(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return serverSentEventSink.events(lastEventId)
+                .map(event -> ServerSentEvent.builder(event.getOrder())
+                        .id(String.valueOf(event.getSequence()))
+                        .event(event.getType().name())
+                        .build());
+    }
+    
+    @GetMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<OrderResponse> getOrderById(@PathVariable String id) {
+        return orderService.getOrderById(id);
+    }
+    
+    @GetMapping("/customer/{email}")
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<OrderResponse> getOrdersByCustomerEmail(@PathVariable String email) {
+        return orderService.getOrdersByCustomerEmail(email);
+    }
+    
+    @GetMapping(value = "/customer/{email}", params = "limit")
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<OrderResponse> getOrdersByCustomerEmailPage(@PathVariable String email,
+                                                            @RequestParam(defaultValue = "0") @Min(0) int page,
+                                                            @RequestParam @Min(1) @Max(1000) int limit) {
+        return orderService.getOrdersByCustomerEmail(email, page, limit);
+    }
+    
+    // Newest first, without line items
+    @GetMapping(value = "/customer/{email}", params = "view=summary")
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<OrderSummary> getOrderSummariesByCustomerEmail(@PathVariable String email,
+                                                               @RequestParam(defaultValue = "0") @Min(0) int page,
+                                                               @RequestParam(required = false) @Min(1) @Max(1000) Integer limit) {
+        return orderService.getOrderSummariesByCustomerEmail(email, page, limit);
+    }
+}
\ No newline at end of file
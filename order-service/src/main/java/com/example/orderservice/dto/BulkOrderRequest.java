@@ -0,0 +1,24 @@
+package com.example.orderservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOrderRequest {
+
+    public static final int MAX_ORDERS = 1000;
+
+    // Orders are validated one by one, so an invalid order fails on its own instead of rejecting the request
+    @NotEmpty(message = "At least one order is required")
+    @Size(max = MAX_ORDERS, message = "At most " + MAX_ORDERS + " orders per request")
+    private List<OrderRequest> orders;
+}
\ No newline at end of file
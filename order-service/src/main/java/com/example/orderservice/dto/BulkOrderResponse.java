@@ -0,0 +1,37 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkOrderResponse {
+    private int created;
+    private int failed;
+    // One result per submitted order, in request order
+    private List<Result> results;
+
+    public enum Status {
+        CREATED,
+        // Rejected by validation; nothing was reserved
+        INVALID,
+        // Stock could not be reserved or the order could not be saved; any reserved stock was released
+        FAILED
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Result {
+        private int index;
+        private Status status;
+        private OrderResponse order;
+        private String error;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Revenue of the orders placed on one day, in the order-service's time zone.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyRevenue {
+    private LocalDate day;
+    private Money revenue;
+    private long orders;
+}
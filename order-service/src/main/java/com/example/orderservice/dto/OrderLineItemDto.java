@@ -1,6 +1,7 @@
 package com.example.orderservice.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,6 +16,7 @@ public class OrderLineItemDto {
     @NotBlank(message = "Product ID is required")
     private String productId;
     
+    @NotNull(message = "Quantity is required")
     @Positive(message = "Quantity must be positive")
     private Integer quantity;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.orderservice.dto;
 
+import com.example.orderservice.model.Money;
 import com.example.orderservice.model.OrderLineItem;
 import com.example.orderservice.model.OrderStatus;
 import lombok.AllArgsConstructor;
@@ -7,7 +8,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -20,7 +20,7 @@ public class OrderResponse {
     private String customerName;
     private String customerEmail;
     private List<OrderLineItem> orderLineItems;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private LocalDateTime orderDate;
     private OrderStatus orderStatus;
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * List view of an order. Also used as a repository projection, so line items are never read from MongoDB.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderSummary {
+    private String id;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private Money totalAmount;
+}
\ No newline at end of file
@@ -1,12 +1,11 @@
 package com.example.orderservice.dto;
 
+import com.example.orderservice.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @Builder
 @AllArgsConstructor
@@ -15,6 +14,6 @@ public class ProductDto {
     private String id;
     private String name;
     private String description;
-    private BigDecimal price;
+    private Money price;
     private Integer stock;
 }
\ No newline at end of file
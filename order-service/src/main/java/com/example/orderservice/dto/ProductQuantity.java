@@ -0,0 +1,20 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Units of one product ordered over a time range, and the number of orders they were in.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductQuantity {
+    private String productId;
+    private String productName;
+    private long quantity;
+    private long orders;
+}
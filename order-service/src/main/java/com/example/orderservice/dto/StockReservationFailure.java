@@ -0,0 +1,21 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservationFailure {
+
+    public enum Reason {
+        NOT_FOUND,
+        INSUFFICIENT_STOCK
+    }
+
+    private String productId;
+    private Reason reason;
+}
\ No newline at end of file
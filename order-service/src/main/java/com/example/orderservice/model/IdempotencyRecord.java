@@ -0,0 +1,36 @@
+package com.example.orderservice.model;
+
+import com.example.orderservice.dto.OrderResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One {@code Idempotency-Key} seen on {@code POST /api/orders}. The key is the document id, so MongoDB's
+ * unique {@code _id} index guarantees that only one request can claim it.
+ */
+@Document(collection = "idempotency_keys")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class IdempotencyRecord {
+    @Id
+    private String key;
+    private String requestHash;
+    // Null while the request that claimed the key is still being processed
+    private OrderResponse response;
+    private Instant createdAt;
+    // Identifies the request holding the claim, so that a request whose claim was taken over cannot remove or
+    // complete the new one
+    private String claimId;
+    // TTL index: MongoDB deletes the record once this instant has passed
+    @Indexed(expireAfter = "0s")
+    private Instant expiresAt;
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+/**
+ * An amount of money as a whole number of the currency's minor units, e.g. cents, so that pricing an order is
+ * {@code long} arithmetic instead of a chain of {@link BigDecimal} allocations. MongoDB stores it as
+ * {@code {minorUnits: <int64>, currency: "USD"}} (see {@code MongoConversionsConfig}), which sorts and sums exactly
+ * on the database side; JSON carries it as a decimal number of major units, as it did when prices were
+ * {@link BigDecimal}s.
+ */
+public record Money(long minorUnits, Currency currency) {
+
+    // The catalogue is priced in a single currency
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    public Money {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+    }
+
+    /**
+     * The amount in {@link #DEFAULT_CURRENCY}. Fails with an {@link ArithmeticException} when the amount has more
+     * decimal places than the currency has minor units.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(amount.movePointRight(currency.getDefaultFractionDigits()).longValueExact(), currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Cannot add " + other.currency + " to " + currency);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.orderservice.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldKeepAmountInMinorUnits() {
+        Money price = Money.of(new BigDecimal("10.99"));
+
+        assertEquals(1099, price.minorUnits());
+        assertEquals(Money.DEFAULT_CURRENCY, price.currency());
+        assertEquals(Money.of(new BigDecimal("10.990")), price);
+        assertEquals(new BigDecimal("32.97"), price.times(3).toBigDecimal());
+        assertEquals(new Money(1599, Money.DEFAULT_CURRENCY), price.plus(Money.of(new BigDecimal("5"))));
+    }
+
+    @Test
+    void shouldRejectAmountsFinerThanMinorUnits() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("10.999")));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MAX_VALUE, Money.DEFAULT_CURRENCY).times(2));
+        assertThrows(IllegalArgumentException.class,
+                () -> Money.of(BigDecimal.ONE).plus(Money.of(BigDecimal.ONE, Currency.getInstance("EUR"))));
+    }
+
+    @Test
+    void shouldWriteAndReadDecimalJson() throws Exception {
+        assertEquals("21.90", objectMapper.writeValueAsString(new Money(2190, Money.DEFAULT_CURRENCY)));
+        assertEquals(new Money(2190, Money.DEFAULT_CURRENCY), objectMapper.readValue("21.9", Money.class));
+    }
+}
@@ -5,13 +5,23 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection = "orders")
+@CompoundIndexes({
+        // A customer's orders, newest first
+        @CompoundIndex(name = "customerEmail_orderDate", def = "{'customerEmail': 1, 'orderDate': -1}"),
+        // Orders in a given status, oldest first
+        @CompoundIndex(name = "orderStatus_orderDate", def = "{'orderStatus': 1, 'orderDate': 1}"),
+        // Orders in a time range, counted by status without reading the documents
+        @CompoundIndex(name = "orderDate_orderStatus", def = "{'orderDate': 1, 'orderStatus': 1}")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -22,7 +32,9 @@ public class Order {
     private String customerName;
     private String customerEmail;
     private List<OrderLineItem> orderLineItems;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private LocalDateTime orderDate;
     private OrderStatus orderStatus;
+    // PENDING orders only: no queue worker may claim the order before this time
+    private Instant claimedUntil;
 }
\ No newline at end of file
@@ -5,8 +5,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -14,6 +12,6 @@ import java.math.BigDecimal;
 public class OrderLineItem {
     private String productId;
     private String productName;
-    private BigDecimal price;
+    private Money price;
     private Integer quantity;
 }
\ No newline at end of file
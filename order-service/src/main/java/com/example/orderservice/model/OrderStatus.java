@@ -1,6 +1,8 @@
 package com.example.orderservice.model;
 
 public enum OrderStatus {
+    // Accepted but not yet processed by the order queue; stock is not reserved yet
+    PENDING,
     PLACED,
     CONFIRMED,
     SHIPPED,
@@ -0,0 +1,51 @@
+package com.example.orderservice.model;
+
+import com.example.common.outbox.PublishableEvent;
+import com.example.orderservice.dto.OrderResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A change to an order, recorded in the same transaction as the change itself and published afterwards
+ * by {@link com.example.common.outbox.OutboxRelay}.
+ */
+@Document(collection = "outbox_events")
+// Events still waiting for the relay, in the order they were recorded
+@CompoundIndex(name = "publishedAt_id", def = "{'publishedAt': 1, '_id': 1}")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEvent implements PublishableEvent {
+
+    public enum Type {
+        // Placed right away, with its stock reserved
+        ORDER_CREATED,
+        // Stored as PENDING, to be placed by the order queue
+        ORDER_ACCEPTED,
+        ORDER_PLACED,
+        ORDER_CANCELLED
+    }
+
+    @Id
+    private String id;
+    // Position in the published event stream; assigned by the relay, absent until the event is published
+    @Indexed(unique = true, sparse = true)
+    private Long sequence;
+    private Type type;
+    private String orderId;
+    // The order as it was right after the change
+    private OrderResponse order;
+    private Instant occurredAt;
+    // TTL index: published events are kept for a week so that subscribers can catch up after a disconnect
+    @Indexed(name = "publishedAt_ttl", expireAfter = "7d")
+    private Instant publishedAt;
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.example.orderservice.outbox;
+
+import com.example.common.outbox.OutboxRelay;
+import com.example.common.outbox.TransactionalOutbox;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.model.OutboxEvent;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Records change events next to the changes themselves. Writes that produce events run through
+ * {@link #inTransaction}, which commits the change and its events together when {@code outbox.transactional}
+ * is on, and call {@link #record} inside it.
+ */
+@Component
+public class Outbox extends TransactionalOutbox {
+
+    private final MongoTemplate mongoTemplate;
+
+    public Outbox(MongoTemplate mongoTemplate,
+                  @Nullable PlatformTransactionManager transactionManager,
+                  OutboxRelay<OutboxEvent> relay) {
+        super(transactionManager, relay);
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void record(OutboxEvent.Type type, OrderResponse order) {
+        recordAll(type, List.of(order));
+    }
+
+    public void recordAll(OutboxEvent.Type type, List<OrderResponse> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<OutboxEvent> events = orders.stream()
+                .map(order -> event(type, order, now))
+                .toList();
+        mongoTemplate.insert(events, OutboxEvent.class);
+    }
+
+    static OutboxEvent event(OutboxEvent.Type type, OrderResponse order, Instant occurredAt) {
+        return OutboxEvent.builder()
+                .type(type)
+                .orderId(order.getId())
+                .order(order)
+                .occurredAt(occurredAt)
+                .build();
+    }
+}
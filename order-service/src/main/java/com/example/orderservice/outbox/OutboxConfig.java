@@ -0,0 +1,37 @@
+package com.example.orderservice.outbox;
+
+import com.example.common.outbox.OutboxProperties;
+import com.example.common.outbox.OutboxRelay;
+import com.example.common.outbox.ServerSentEventSink;
+import com.example.orderservice.model.OutboxEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * Relays this service's {@link OutboxEvent}s to its server-sent event subscribers.
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "outbox")
+    public OutboxProperties outboxProperties() {
+        return new OutboxProperties();
+    }
+
+    @Bean
+    public ServerSentEventSink<OutboxEvent> serverSentEventSink(MongoTemplate mongoTemplate, OutboxProperties properties) {
+        return new ServerSentEventSink<>(mongoTemplate, OutboxEvent.class, properties);
+    }
+
+    @Bean
+    public OutboxRelay<OutboxEvent> outboxRelay(MongoTemplate mongoTemplate,
+                                                ServerSentEventSink<OutboxEvent> serverSentEventSink,
+                                                OutboxProperties properties,
+                                                MeterRegistry meterRegistry) {
+        return new OutboxRelay<>(mongoTemplate, OutboxEvent.class, serverSentEventSink, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.orderservice.outbox;
+
+import com.example.common.outbox.OutboxRelay;
+import com.example.common.outbox.TransactionalOutbox;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.model.OutboxEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Instant;
+
+/**
+ * Non-blocking counterpart of {@link Outbox}, used by the {@code reactive} profile.
+ */
+@Component
+public class ReactiveOutbox {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final TransactionalOperator transactionalOperator;
+    private final OutboxRelay<OutboxEvent> relay;
+
+    public ReactiveOutbox(ReactiveMongoTemplate mongoTemplate,
+                          @Nullable ReactiveTransactionManager transactionManager,
+                          OutboxRelay<OutboxEvent> relay) {
+        this.mongoTemplate = mongoTemplate;
+        this.transactionalOperator = transactionManager == null ? null : TransactionalOperator.create(transactionManager);
+        this.relay = relay;
+    }
+
+    public <T> Mono<T> inTransaction(Mono<T> work) {
+        if (transactionalOperator == null) {
+            return work.doOnSuccess(result -> relay.signal());
+        }
+        return transactionalOperator.transactional(work)
+                .retryWhen(Retry.max(TransactionalOutbox.MAX_ATTEMPTS - 1)
+                        .filter(TransactionalOutbox::isTransient)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSuccess(result -> relay.signal());
+    }
+
+    public Mono<Void> record(OutboxEvent.Type type, OrderResponse order) {
+        return mongoTemplate.insert(Outbox.event(type, order, Instant.now())).then();
+    }
+}
\ No newline at end of file
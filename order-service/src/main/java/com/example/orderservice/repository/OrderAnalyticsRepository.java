@@ -0,0 +1,34 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.DailyRevenue;
+import com.example.orderservice.dto.ProductQuantity;
+import com.example.orderservice.model.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Order figures computed by MongoDB aggregation pipelines over orders dated in {@code [from, to)}, so only the
+ * results leave the database.
+ */
+public interface OrderAnalyticsRepository {
+
+    /**
+     * Revenue of the orders in {@code statuses} per day, oldest day first. Days without such orders are left out.
+     * Totals that are still legacy decimal strings count in {@link com.example.orderservice.model.Money#DEFAULT_CURRENCY}.
+     */
+    List<DailyRevenue> revenuePerDay(LocalDateTime from, LocalDateTime to, Set<OrderStatus> statuses);
+
+    /**
+     * The {@code limit} products ordered in the largest quantities by orders in {@code statuses}, largest first.
+     */
+    List<ProductQuantity> topProductsByQuantity(LocalDateTime from, LocalDateTime to, Set<OrderStatus> statuses,
+                                                int limit);
+
+    /**
+     * The number of orders in each status. Statuses without orders, and orders without a status, are left out.
+     */
+    Map<OrderStatus, Long> countByStatus(LocalDateTime from, LocalDateTime to);
+}
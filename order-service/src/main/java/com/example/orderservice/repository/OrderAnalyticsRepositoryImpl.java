@@ -0,0 +1,139 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.DailyRevenue;
+import com.example.orderservice.dto.ProductQuantity;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The pipelines start with a {@code $match} on {@code orderDate}, and {@code orderStatus} where given, so that they
+ * only read the orders in range through the {@code orderStatus_orderDate} and {@code orderDate_orderStatus} indexes.
+ */
+@RequiredArgsConstructor
+public class OrderAnalyticsRepositoryImpl implements OrderAnalyticsRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<DailyRevenue> revenuePerDay(LocalDateTime from, LocalDateTime to, Set<OrderStatus> statuses) {
+        // orderDate is stored as the instant of the local date-time in the JVM's zone, so days are cut in that zone
+        Document day = new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                .append("date", "$orderDate")
+                .append("timezone", ZoneId.systemDefault().getId()));
+        List<Document> pipeline = List.of(
+                new Document("$match", dateRange(from, to).append("orderStatus", inStatuses(statuses))
+                        .append("totalAmount", new Document("$ne", null))),
+                new Document("$set", new Document("total", new Document("$cond", List.of(
+                        new Document("$eq", List.of(new Document("$type", "$totalAmount"), "object")),
+                        "$totalAmount",
+                        legacyTotal())))),
+                // Legacy totals that are not a number; MongoConversionsConfig cannot read them either
+                new Document("$match", new Document("total.minorUnits", new Document("$ne", null))),
+                new Document("$group", new Document("_id", new Document("day", day)
+                        .append("currency", "$total.currency"))
+                        .append("minorUnits", new Document("$sum", "$total.minorUnits"))
+                        .append("orders", new Document("$sum", 1))),
+                new Document("$sort", new Document("_id.day", 1)));
+
+        List<DailyRevenue> revenue = new ArrayList<>();
+        for (Document result : aggregate(pipeline)) {
+            Document id = result.get("_id", Document.class);
+            revenue.add(new DailyRevenue(LocalDate.parse(id.getString("day")),
+                    new Money(longValue(result, "minorUnits"), Currency.getInstance(id.getString("currency"))),
+                    longValue(result, "orders")));
+        }
+        return revenue;
+    }
+
+    @Override
+    public List<ProductQuantity> topProductsByQuantity(LocalDateTime from, LocalDateTime to,
+                                                       Set<OrderStatus> statuses, int limit) {
+        List<Document> pipeline = List.of(
+                new Document("$match", dateRange(from, to).append("orderStatus", inStatuses(statuses))),
+                new Document("$project", new Document("_id", 0).append("orderLineItems.productId", 1)
+                        .append("orderLineItems.productName", 1).append("orderLineItems.quantity", 1)),
+                new Document("$unwind", "$orderLineItems"),
+                new Document("$group", new Document("_id", "$orderLineItems.productId")
+                        .append("productName", new Document("$first", "$orderLineItems.productName"))
+                        .append("quantity", new Document("$sum", "$orderLineItems.quantity"))
+                        .append("orders", new Document("$sum", 1))),
+                // Followed by $limit, so the server only keeps the top entries while sorting
+                new Document("$sort", new Document("quantity", -1).append("_id", 1)),
+                new Document("$limit", limit));
+
+        List<ProductQuantity> products = new ArrayList<>();
+        for (Document result : aggregate(pipeline)) {
+            products.add(new ProductQuantity(result.getString("_id"), result.getString("productName"),
+                    longValue(result, "quantity"), longValue(result, "orders")));
+        }
+        return products;
+    }
+
+    @Override
+    public Map<OrderStatus, Long> countByStatus(LocalDateTime from, LocalDateTime to) {
+        // Only orderDate and orderStatus are read, both from the orderDate_orderStatus index
+        List<Document> pipeline = List.of(
+                new Document("$match", dateRange(from, to)),
+                new Document("$group", new Document("_id", "$orderStatus")
+                        .append("orders", new Document("$sum", 1))));
+
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (Document result : aggregate(pipeline)) {
+            // Orders without a status are grouped under a null id
+            if (result.getString("_id") != null) {
+                counts.put(OrderStatus.valueOf(result.getString("_id")), longValue(result, "orders"));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Totals written before they were {@link Money} are decimal strings (or Decimal128s) without a currency. They are
+     * read as {@link Money#DEFAULT_CURRENCY}, rounded half up to its minor units, as MongoConversionsConfig reads them.
+     */
+    private static Document legacyTotal() {
+        Currency currency = Money.DEFAULT_CURRENCY;
+        Document amount = new Document("$convert", new Document("input", "$totalAmount")
+                .append("to", "decimal")
+                .append("onError", null));
+        Document scaled = new Document("$multiply", List.of(amount,
+                new Decimal128(BigDecimal.TEN.pow(currency.getDefaultFractionDigits()))));
+        // $round rounds half to even, so half up is a floor after adding one half
+        Document minorUnits = new Document("$toLong", new Document("$floor",
+                new Document("$add", List.of(scaled, new Decimal128(new BigDecimal("0.5"))))));
+        return new Document("currency", currency.getCurrencyCode()).append("minorUnits", minorUnits);
+    }
+
+    private Iterable<Document> aggregate(List<Document> pipeline) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Order.class)).aggregate(pipeline);
+    }
+
+    private Document dateRange(LocalDateTime from, LocalDateTime to) {
+        return new Document("orderDate", new Document("$gte", mongoTemplate.getConverter().convertToMongoType(from))
+                .append("$lt", mongoTemplate.getConverter().convertToMongoType(to)));
+    }
+
+    private static Document inStatuses(Set<OrderStatus> statuses) {
+        return new Document("$in", statuses.stream().map(OrderStatus::name).toList());
+    }
+
+    private static long longValue(Document document, String key) {
+        return ((Number) document.get(key)).longValue();
+    }
+}
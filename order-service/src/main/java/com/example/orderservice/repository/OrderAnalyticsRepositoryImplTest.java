@@ -0,0 +1,100 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.DailyRevenue;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderAnalyticsRepositoryImplTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 6, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 7, 1, 0, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    private OrderAnalyticsRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(Order.class)).thenReturn("orders");
+        when(mongoTemplate.getCollection("orders")).thenReturn(collection);
+        when(mongoTemplate.getConverter()).thenReturn(mock(MongoConverter.class));
+        repository = new OrderAnalyticsRepositoryImpl(mongoTemplate);
+    }
+
+    @Test
+    void shouldConvertLegacyTotalsToMinorUnits() {
+        aggregateReturns(new Document("_id", new Document("day", "2024-06-03").append("currency", "USD"))
+                .append("minorUnits", 4599L).append("orders", 2));
+
+        List<DailyRevenue> revenue = repository.revenuePerDay(FROM, TO, Set.of(OrderStatus.PLACED));
+
+        // A legacy order stores its total as a string such as "19.99"; it is summed as 1999 USD cents
+        List<Document> pipeline = capturedPipeline();
+        List<?> total = pipeline.get(1).get("$set", Document.class).get("total", Document.class).getList("$cond", Object.class);
+        assertEquals("$totalAmount", total.get(1));
+        Document legacy = (Document) total.get(2);
+        assertEquals("USD", legacy.getString("currency"));
+        assertTrue(legacy.get("minorUnits", Document.class).toJson().contains("\"$convert\""));
+        assertEquals("$total.minorUnits", pipeline.get(3).get("$group", Document.class)
+                .get("minorUnits", Document.class).get("$sum"));
+        assertEquals(List.of(new DailyRevenue(LocalDate.of(2024, 6, 3), new Money(4599, Money.DEFAULT_CURRENCY), 2)),
+                revenue);
+    }
+
+    @Test
+    void shouldSkipOrdersWithoutStatusInCounts() {
+        aggregateReturns(new Document("_id", null).append("orders", 3),
+                new Document("_id", "PLACED").append("orders", 7));
+
+        Map<OrderStatus, Long> counts = repository.countByStatus(FROM, TO);
+
+        assertEquals(Map.of(OrderStatus.PLACED, 7L), counts);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void aggregateReturns(Document... results) {
+        Iterator<Document> iterator = List.of(results).iterator();
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        AggregateIterable<Document> iterable = mock(AggregateIterable.class);
+        when(iterable.iterator()).thenReturn(cursor);
+        when(collection.aggregate(anyList())).thenReturn(iterable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Document> capturedPipeline() {
+        ArgumentCaptor<List<Document>> pipeline = ArgumentCaptor.forClass(List.class);
+        verify(collection).aggregate(pipeline.capture());
+        return pipeline.getValue();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Multi-document writes sent to MongoDB as a single command.
+ */
+public interface OrderBulkRepository {
+
+    /**
+     * Inserts the orders with one unordered bulk write, so a failing document does not stop the others.
+     * Returns the positions in {@code orders} of the ones that were not inserted.
+     */
+    Set<Integer> insertUnordered(List<Order> orders);
+}
\ No newline at end of file
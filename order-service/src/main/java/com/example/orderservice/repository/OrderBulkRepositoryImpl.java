@@ -0,0 +1,36 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+@Slf4j
+public class OrderBulkRepositoryImpl implements OrderBulkRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Set<Integer> insertUnordered(List<Order> orders) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)
+                    .insert(orders)
+                    .execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            log.warn("{} of {} orders were not inserted, first error: {}",
+                    e.getErrors().size(), orders.size(), e.getErrors().get(0).getMessage());
+            return e.getErrors().stream()
+                    .map(BulkWriteError::getIndex)
+                    .collect(Collectors.toSet());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Runs {@code explain()} at startup for the query shape behind every {@link OrderRepository} method, its fragments'
+ * included, for the {@code $match} that opens each analytics pipeline and for the order queue's queries, and reports
+ * the ones MongoDB would answer with a collection scan, i.e. queries no declared index covers. With
+ * {@code query-plan-check.mode=fail} such a query stops the application from starting.
+ */
+@Component
+@Slf4j
+public class OrderQueryPlanVerifier {
+
+    public enum Mode { OFF, WARN, FAIL }
+
+    private static final Document DATE_RANGE = new Document("$gte", new Date(0)).append("$lt", new Date());
+    private static final Document STATUSES = new Document("$in", List.of("PLACED", "DELIVERED"));
+
+    /**
+     * The filter and sort each repository method sends, keyed by method name. Derived queries are not
+     * introspected; a method added without an entry here, to the repository or to one of its fragments, is
+     * reported on startup.
+     */
+    static final Map<String, QueryShape> QUERY_SHAPES = Map.of(
+            "findByCustomerEmail", new QueryShape(
+                    new Document("customerEmail", "explain@example.com"), new Document()),
+            "findByCustomerEmailOrderByOrderDateDesc", new QueryShape(
+                    new Document("customerEmail", "explain@example.com"), new Document("orderDate", -1)),
+            "findSummariesByCustomerEmailOrderByOrderDateDesc", new QueryShape(
+                    new Document("customerEmail", "explain@example.com"), new Document("orderDate", -1)),
+            "findAllBy", new QueryShape(
+                    new Document(), new Document("_id", 1)),
+            "findByIdGreaterThan", new QueryShape(
+                    new Document("_id", new Document("$gt", new ObjectId())), new Document("_id", 1)),
+            // The $match opening each OrderAnalyticsRepository pipeline
+            "revenuePerDay", new QueryShape(
+                    new Document("orderDate", DATE_RANGE).append("orderStatus", STATUSES), new Document()),
+            "topProductsByQuantity", new QueryShape(
+                    new Document("orderDate", DATE_RANGE).append("orderStatus", STATUSES), new Document()),
+            "countByStatus", new QueryShape(
+                    new Document("orderDate", DATE_RANGE), new Document()));
+
+    /**
+     * The queries {@code OrderQueueProcessor} sends through {@link MongoTemplate}, which run on every poll of every
+     * worker.
+     */
+    static final Map<String, QueryShape> QUEUE_SHAPES = Map.of(
+            "OrderQueueProcessor.claimNext", new QueryShape(
+                    new Document("orderStatus", "PENDING")
+                            .append("claimedUntil", new Document("$not", new Document("$gt", new Date()))),
+                    new Document("orderDate", 1)),
+            "OrderQueueProcessor.depth", new QueryShape(
+                    new Document("orderStatus", "PENDING"), new Document()),
+            "OrderQueueProcessor.oldestAge", new QueryShape(
+                    new Document("orderStatus", "PENDING"), new Document("orderDate", 1)));
+
+    // Full exports read every order by design
+    static final Set<String> FULL_SCANS = Set.of("streamAllBy");
+
+    // Writes without a filter, so there is no plan to check
+    static final Set<String> WRITES = Set.of("insertUnordered");
+
+    private final MongoTemplate mongoTemplate;
+    private final Mode mode;
+
+    public OrderQueryPlanVerifier(MongoTemplate mongoTemplate,
+                                  @Value("${query-plan-check.mode:warn}") Mode mode) {
+        this.mongoTemplate = mongoTemplate;
+        this.mode = mode;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        if (mode == Mode.OFF) {
+            return;
+        }
+
+        Set<String> unchecked = uncheckedMethods();
+        if (!unchecked.isEmpty()) {
+            log.warn("No query shape registered for OrderRepository methods {}; their plans are not checked", unchecked);
+        }
+
+        List<String> collectionScans = new ArrayList<>();
+        explainAll().forEach((method, plan) -> {
+            if (hasCollectionScan(plan)) {
+                collectionScans.add(method);
+            }
+        });
+        if (collectionScans.isEmpty()) {
+            return;
+        }
+
+        String message = "Order queries without a supporting index (COLLSCAN): " + collectionScans;
+        if (mode == Mode.FAIL) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+
+    Map<String, Document> explainAll() {
+        String collection = mongoTemplate.getCollectionName(Order.class);
+        Map<String, QueryShape> shapes = new LinkedHashMap<>(QUERY_SHAPES);
+        shapes.putAll(QUEUE_SHAPES);
+        Map<String, Document> plans = new LinkedHashMap<>();
+        shapes.forEach((method, shape) -> {
+            try {
+                plans.put(method, mongoTemplate.getCollection(collection)
+                        .find(shape.filter())
+                        .sort(shape.sort())
+                        .limit(1)
+                        .explain());
+            } catch (RuntimeException e) {
+                // Not every server (or test double) supports explain; that is not an indexing problem
+                log.warn("Could not explain query {}: {}", method, e.getMessage());
+            }
+        });
+        return plans;
+    }
+
+    static Set<String> uncheckedMethods() {
+        Set<String> unchecked = new TreeSet<>();
+        repositoryInterfaces()
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods()))
+                .map(Method::getName)
+                .filter(name -> !QUERY_SHAPES.containsKey(name) && !FULL_SCANS.contains(name) && !WRITES.contains(name))
+                .forEach(unchecked::add);
+        return unchecked;
+    }
+
+    // OrderRepository and the fragments it extends, which live next to it; Spring Data's own interfaces are left out
+    private static Stream<Class<?>> repositoryInterfaces() {
+        return Stream.concat(Stream.of(OrderRepository.class), Arrays.stream(OrderRepository.class.getInterfaces())
+                .filter(fragment -> fragment.getPackage().equals(OrderRepository.class.getPackage())));
+    }
+
+    /**
+     * Looks for a {@code COLLSCAN} stage anywhere in the winning plan. The plan nests stages under
+     * {@code inputStage}, {@code inputStages} or, with the slot-based engine, {@code queryPlan}.
+     */
+    static boolean hasCollectionScan(Document explain) {
+        Object queryPlanner = explain.get("queryPlanner");
+        if (!(queryPlanner instanceof Document planner)) {
+            return false;
+        }
+        return containsStage(planner.get("winningPlan"), "COLLSCAN");
+    }
+
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+
+    record QueryShape(Document filter, Document sort) {
+    }
+}
\ No newline at end of file
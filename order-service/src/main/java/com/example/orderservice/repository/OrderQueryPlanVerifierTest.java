@@ -0,0 +1,88 @@
+package com.example.orderservice.repository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class OrderQueryPlanVerifierTest {
+
+    private static final Document INDEX_SCAN = plan(new Document("stage", "LIMIT")
+            .append("inputStage", new Document("stage", "FETCH")
+                    .append("inputStage", new Document("stage", "IXSCAN").append("indexName", "customerEmail_orderDate"))));
+
+    private static final Document COLLECTION_SCAN = plan(new Document("stage", "SORT")
+            .append("inputStage", new Document("stage", "COLLSCAN")));
+
+    @Test
+    void shouldRegisterAQueryShapeForEveryRepositoryMethod() {
+        assertTrue(OrderQueryPlanVerifier.uncheckedMethods().isEmpty(),
+                "Unchecked OrderRepository methods: " + OrderQueryPlanVerifier.uncheckedMethods());
+    }
+
+    @Test
+    void shouldIncludeFragmentMethodsInTheCheck() {
+        assertTrue(OrderQueryPlanVerifier.QUERY_SHAPES.keySet().containsAll(
+                List.of("revenuePerDay", "topProductsByQuantity", "countByStatus")));
+        assertTrue(OrderQueryPlanVerifier.WRITES.contains("insertUnordered"));
+    }
+
+    @Test
+    void shouldExplainTheQueueQueries() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(any())).thenReturn("orders");
+        when(mongoTemplate.getCollection("orders")).thenThrow(new UnsupportedOperationException("no explain"));
+
+        Map<String, Document> plans = new OrderQueryPlanVerifier(mongoTemplate, OrderQueryPlanVerifier.Mode.WARN).explainAll();
+
+        assertTrue(plans.isEmpty());
+        verify(mongoTemplate, times(OrderQueryPlanVerifier.QUERY_SHAPES.size() + OrderQueryPlanVerifier.QUEUE_SHAPES.size()))
+                .getCollection("orders");
+        assertTrue(OrderQueryPlanVerifier.QUEUE_SHAPES.containsKey("OrderQueueProcessor.claimNext"));
+    }
+
+    @Test
+    void shouldDetectCollectionScansAnywhereInTheWinningPlan() {
+        Document slotBasedPlan = plan(new Document("queryPlan", new Document("stage", "OR")
+                .append("inputStages", List.of(new Document("stage", "IXSCAN"), new Document("stage", "COLLSCAN")))));
+
+        assertFalse(OrderQueryPlanVerifier.hasCollectionScan(INDEX_SCAN));
+        assertTrue(OrderQueryPlanVerifier.hasCollectionScan(COLLECTION_SCAN));
+        assertTrue(OrderQueryPlanVerifier.hasCollectionScan(slotBasedPlan));
+        assertFalse(OrderQueryPlanVerifier.hasCollectionScan(new Document()));
+    }
+
+    @Test
+    void shouldFailStartupOnCollectionScanInFailMode() {
+        OrderQueryPlanVerifier verifier = verifierReturning(OrderQueryPlanVerifier.Mode.FAIL,
+                Map.of("findAllBy", INDEX_SCAN, "findByCustomerEmail", COLLECTION_SCAN));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, verifier::verify);
+        assertTrue(e.getMessage().contains("findByCustomerEmail"));
+        assertFalse(e.getMessage().contains("findAllBy"));
+    }
+
+    @Test
+    void shouldOnlyWarnOnCollectionScanInWarnMode() {
+        OrderQueryPlanVerifier verifier = verifierReturning(OrderQueryPlanVerifier.Mode.WARN,
+                Map.of("findByCustomerEmail", COLLECTION_SCAN));
+
+        assertDoesNotThrow(verifier::verify);
+    }
+
+    private static OrderQueryPlanVerifier verifierReturning(OrderQueryPlanVerifier.Mode mode, Map<String, Document> plans) {
+        OrderQueryPlanVerifier verifier = spy(new OrderQueryPlanVerifier(mock(MongoTemplate.class), mode));
+        doReturn(plans).when(verifier).explainAll();
+        return verifier;
+    }
+
+    private static Document plan(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan));
+    }
+}
\ No newline at end of file
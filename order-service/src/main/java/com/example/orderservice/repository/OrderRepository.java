@@ -1,10 +1,27 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.dto.OrderSummary;
 import com.example.orderservice.model.Order;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface OrderRepository extends MongoRepository<Order, String> {
+public interface OrderRepository extends MongoRepository<Order, String>, OrderBulkRepository,
+        OrderAnalyticsRepository {
     List<Order> findByCustomerEmail(String customerEmail);
+
+    List<Order> findByCustomerEmailOrderByOrderDateDesc(String customerEmail, Pageable pageable);
+
+    List<OrderSummary> findSummariesByCustomerEmailOrderByOrderDateDesc(String customerEmail, Pageable pageable);
+
+    List<Order> findAllBy(Pageable pageable);
+
+    List<Order> findByIdGreaterThan(ObjectId id, Pageable pageable);
+
+    @Meta(cursorBatchSize = 500)
+    Stream<Order> streamAllBy();
 }
\ No newline at end of file
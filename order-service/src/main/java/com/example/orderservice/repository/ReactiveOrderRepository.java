@@ -0,0 +1,20 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.dto.OrderSummary;
+import com.example.orderservice.model.Order;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveOrderRepository extends ReactiveMongoRepository<Order, String> {
+    Flux<Order> findByCustomerEmail(String customerEmail);
+
+    Flux<Order> findByCustomerEmailOrderByOrderDateDesc(String customerEmail, Pageable pageable);
+
+    Flux<OrderSummary> findSummariesByCustomerEmailOrderByOrderDateDesc(String customerEmail, Pageable pageable);
+
+    Flux<Order> findAllBy(Pageable pageable);
+
+    Flux<Order> findByIdGreaterThan(ObjectId id, Pageable pageable);
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.client.ProductServiceUnavailableException;
+import com.example.orderservice.client.StockReservationRejectedException;
+import com.example.orderservice.dto.BulkOrderResponse;
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.outbox.Outbox;
+import com.example.orderservice.repository.OrderRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Creates many orders at once. Stock for all of them is normally reserved with a single product-service
+ * call, and the orders are written with a single bulk insert. Every order still succeeds or fails on its own:
+ * when the combined reservation is refused, stock is reserved order by order instead, and whatever was
+ * reserved for an order that is not saved is released again. The inserted orders' events are written in the
+ * same transaction as the bulk insert.
+ * <p>
+ * The combined reservation is keyed by an id of its own and each per-order one by the order's id, which is
+ * assigned up front. Stock is always released under the key it was reserved with, so a reservation that timed
+ * out after product-service had taken the stock is given back as well.
+ */
+@Service
+@Slf4j
+public class BulkOrderService {
+
+    // product-service's reservation endpoint accepts at most this many items per call
+    static final int MAX_RESERVATION_ITEMS = 1000;
+
+    private final OrderRepository orderRepository;
+    private final ProductServiceClient productServiceClient;
+    private final Outbox outbox;
+    private final Validator validator;
+    private final int fallbackConcurrency;
+
+    public BulkOrderService(OrderRepository orderRepository,
+                            ProductServiceClient productServiceClient,
+                            Outbox outbox,
+                            Validator validator,
+                            @Value("${bulk-orders.fallback-concurrency:8}") int fallbackConcurrency) {
+        this.orderRepository = orderRepository;
+        this.productServiceClient = productServiceClient;
+        this.outbox = outbox;
+        this.validator = validator;
+        this.fallbackConcurrency = fallbackConcurrency;
+    }
+
+    public BulkOrderResponse createOrders(List<OrderRequest> requests) {
+        log.info("Creating {} orders in bulk", requests.size());
+
+        BulkOrderResponse.Result[] results = new BulkOrderResponse.Result[requests.size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String violations = violationsOf(requests.get(i));
+            if (violations == null) {
+                valid.add(i);
+            } else {
+                results[i] = new BulkOrderResponse.Result(i, BulkOrderResponse.Status.INVALID, null, violations);
+            }
+        }
+
+        // Assigned up front so that every order can be matched to its result after the bulk insert, and so that
+        // its id can key its own reservation
+        String[] orderIds = new String[requests.size()];
+        valid.forEach(i -> orderIds[i] = new ObjectId().toHexString());
+        Map<String, ProductDto> products = new ConcurrentHashMap<>();
+        // The key each order's stock was reserved under
+        String[] reservationIds = new String[requests.size()];
+        List<Integer> reserved = reserve(requests, valid, orderIds, reservationIds, products, results);
+
+        List<Order> orders = new ArrayList<>(reserved.size());
+        List<Integer> orderIndexes = new ArrayList<>(reserved.size());
+        Map<String, List<OrderLineItemDto>> toRelease = new LinkedHashMap<>();
+        for (int i : reserved) {
+            try {
+                Order order = OrderService.buildOrder(requests.get(i), products);
+                order.setId(orderIds[i]);
+                orders.add(order);
+                orderIndexes.add(i);
+            } catch (RuntimeException e) {
+                results[i] = failed(i, e.getMessage());
+                addToRelease(toRelease, reservationIds[i], requests.get(i));
+            }
+        }
+
+        Set<Integer> notInserted;
+        try {
+            notInserted = orders.isEmpty() ? Set.of() : outbox.inTransaction(() -> insert(orders));
+        } catch (RuntimeException e) {
+            log.error("Bulk insert of {} orders failed: {}", orders.size(), e.getMessage());
+            notInserted = IntStream.range(0, orders.size()).boxed().collect(Collectors.toSet());
+        }
+
+        for (int j = 0; j < orders.size(); j++) {
+            int i = orderIndexes.get(j);
+            if (notInserted.contains(j)) {
+                results[i] = failed(i, "Order could not be saved");
+                addToRelease(toRelease, reservationIds[i], requests.get(i));
+            } else {
+                results[i] = new BulkOrderResponse.Result(i, BulkOrderResponse.Status.CREATED,
+                        OrderService.mapToOrderResponse(orders.get(j)), null);
+            }
+        }
+        // Of the combined reservation, only the items of the orders that were not saved are given back
+        toRelease.forEach((reservationId, items) -> productServiceClient.releaseStock(reservationId, combine(items)).block());
+
+        int created = orders.size() - notInserted.size();
+        log.info("Created {} of {} orders in bulk", created, requests.size());
+
+        return BulkOrderResponse.builder()
+                .created(created)
+                .failed(requests.size() - created)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private Set<Integer> insert(List<Order> orders) {
+        Set<Integer> notInserted = orderRepository.insertUnordered(orders);
+        outbox.recordAll(OutboxEvent.Type.ORDER_CREATED, IntStream.range(0, orders.size())
+                .filter(j -> !notInserted.contains(j))
+                .mapToObj(j -> OrderService.mapToOrderResponse(orders.get(j)))
+                .toList());
+        return notInserted;
+    }
+
+    /**
+     * Reserves stock for the given orders and collects the reserved products, recording for each order the key its
+     * stock was reserved under. Returns the orders that got their stock; the others are given a failed result.
+     */
+    private List<Integer> reserve(List<OrderRequest> requests, List<Integer> orders, String[] orderIds,
+                                  String[] reservationIds, Map<String, ProductDto> products,
+                                  BulkOrderResponse.Result[] results) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        List<OrderLineItemDto> combined = combine(orders.stream()
+                .flatMap(i -> requests.get(i).getOrderLineItems().stream())
+                .toList());
+        if (combined.size() <= MAX_RESERVATION_ITEMS) {
+            String bulkId = new ObjectId().toHexString();
+            try {
+                products.putAll(productServiceClient.reserveStock(bulkId, combined).block());
+                orders.forEach(i -> reservationIds[i] = bulkId);
+                return orders;
+            } catch (StockReservationRejectedException e) {
+                // Nothing was taken
+                log.info("Combined reservation for {} orders refused ({}), reserving per order", orders.size(), e.getMessage());
+            } catch (ProductServiceUnavailableException e) {
+                productServiceClient.releaseStock(bulkId, combined).block();
+                // Reserving order by order would only add load to a product-service that is already failing
+                orders.forEach(i -> results[i] = failed(i, e.getMessage()));
+                return List.of();
+            } catch (RuntimeException e) {
+                productServiceClient.releaseStock(bulkId, combined).block();
+                log.info("Combined reservation for {} orders failed ({}), reserving per order", orders.size(), e.getMessage());
+            }
+        }
+
+        return Flux.fromIterable(orders)
+                .flatMap(i -> productServiceClient.reserveStock(orderIds[i], requests.get(i).getOrderLineItems())
+                        .doOnNext(products::putAll)
+                        .doOnNext(reservedProducts -> reservationIds[i] = orderIds[i])
+                        .thenReturn(i)
+                        .onErrorResume(e -> {
+                            results[i] = failed(i, e.getMessage());
+                            // Nothing was taken if the reservation was refused; otherwise it may have been
+                            return e instanceof StockReservationRejectedException
+                                    ? Mono.<Integer>empty()
+                                    : productServiceClient.releaseStock(orderIds[i], requests.get(i).getOrderLineItems())
+                                            .then(Mono.<Integer>empty());
+                        }), fallbackConcurrency)
+                .collectList()
+                .block();
+    }
+
+    private static void addToRelease(Map<String, List<OrderLineItemDto>> toRelease, String reservationId,
+                                     OrderRequest request) {
+        toRelease.computeIfAbsent(reservationId, id -> new ArrayList<>()).addAll(request.getOrderLineItems());
+    }
+
+    // One item per product, so a product ordered many times is reserved in a single step
+    private static List<OrderLineItemDto> combine(List<OrderLineItemDto> items) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        items.forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+        return quantities.entrySet().stream()
+                .map(entry -> new OrderLineItemDto(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private String violationsOf(OrderRequest request) {
+        if (request == null) {
+            return "Order is required";
+        }
+        return validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.collectingAndThen(Collectors.joining(", "), joined -> joined.isEmpty() ? null : joined));
+    }
+
+    private static BulkOrderResponse.Result failed(int index, String error) {
+        return new BulkOrderResponse.Result(index, BulkOrderResponse.Status.FAILED, null, error);
+    }
+}
\ No newline at end of file
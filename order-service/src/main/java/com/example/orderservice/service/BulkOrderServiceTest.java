@@ -0,0 +1,203 @@
+package com.example.orderservice.service;
+
+import com.example.common.outbox.OutboxRelay;
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.client.ProductServiceUnavailableException;
+import com.example.orderservice.client.StockReservationRejectedException;
+import com.example.orderservice.dto.BulkOrderResponse;
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.dto.StockReservationFailure;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.outbox.Outbox;
+import com.example.orderservice.repository.OrderRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkOrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductServiceClient productServiceClient;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private BulkOrderService bulkOrderService;
+
+    private final ProductDto product1 = ProductDto.builder().id("1").name("Product 1").price(Money.of(new BigDecimal("10.00"))).build();
+    private final ProductDto product2 = ProductDto.builder().id("2").name("Product 2").price(Money.of(new BigDecimal("5.00"))).build();
+
+    @BeforeEach
+    void setUp() {
+        bulkOrderService = new BulkOrderService(orderRepository, productServiceClient,
+                new Outbox(mongoTemplate, null, mock(OutboxRelay.class)),
+                Validation.buildDefaultValidatorFactory().getValidator(), 4);
+    }
+
+    @Test
+    void shouldReserveOnceAndInsertAllOrdersTogether() {
+        when(productServiceClient.reserveStock(anyString(), eq(List.of(item("1", 3), item("2", 1)))))
+                .thenReturn(Mono.just(Map.of("1", product1, "2", product2)));
+        when(orderRepository.insertUnordered(anyList())).thenReturn(Set.of());
+
+        BulkOrderResponse response = bulkOrderService.createOrders(List.of(
+                order(item("1", 2)), order(item("1", 1), item("2", 1))));
+
+        assertEquals(2, response.getCreated());
+        assertEquals(0, response.getFailed());
+        assertEquals(BulkOrderResponse.Status.CREATED, response.getResults().get(1).getStatus());
+        assertEquals(Money.of(new BigDecimal("15.00")), response.getResults().get(1).getOrder().getTotalAmount());
+        assertNotNull(response.getResults().get(0).getOrder().getId());
+        verify(productServiceClient, times(1)).reserveStock(anyString(), anyList());
+        verify(orderRepository).insertUnordered(argThat(orders -> orders.size() == 2));
+        verify(productServiceClient, never()).releaseStock(anyString(), anyList());
+    }
+
+    @Test
+    void shouldFallBackToPerOrderReservationsWhenTheCombinedOneIsRefused() {
+        when(productServiceClient.reserveStock(anyString(), eq(List.of(item("1", 1), item("2", 9)))))
+                .thenReturn(Mono.error(new StockReservationRejectedException("2", StockReservationFailure.Reason.INSUFFICIENT_STOCK)));
+        when(productServiceClient.reserveStock(anyString(), eq(List.of(item("1", 1)))))
+                .thenReturn(Mono.just(Map.of("1", product1)));
+        when(productServiceClient.reserveStock(anyString(), eq(List.of(item("2", 9)))))
+                .thenReturn(Mono.error(new StockReservationRejectedException("2", StockReservationFailure.Reason.INSUFFICIENT_STOCK)));
+        when(orderRepository.insertUnordered(anyList())).thenReturn(Set.of());
+
+        BulkOrderResponse response = bulkOrderService.createOrders(List.of(order(item("1", 1)), order(item("2", 9))));
+
+        assertEquals(1, response.getCreated());
+        assertEquals(BulkOrderResponse.Status.CREATED, response.getResults().get(0).getStatus());
+        assertEquals(BulkOrderResponse.Status.FAILED, response.getResults().get(1).getStatus());
+        assertEquals("Insufficient stock for product: 2", response.getResults().get(1).getError());
+        verify(orderRepository).insertUnordered(argThat(orders -> orders.size() == 1));
+        // Each order's own reservation is keyed by its id
+        verify(productServiceClient).reserveStock(response.getResults().get(0).getOrder().getId(), List.of(item("1", 1)));
+        verify(productServiceClient, never()).releaseStock(anyString(), anyList());
+    }
+
+    @Test
+    void shouldReleasePerOrderReservationThatTimedOut() {
+        when(productServiceClient.reserveStock(anyString(), eq(List.of(item("1", 1), item("2", 9)))))
+                .thenReturn(Mono.error(new StockReservationRejectedException("2", StockReservationFailure.Reason.INSUFFICIENT_STOCK)));
+        when(productServiceClient.reserveStock(anyString(), eq(List.of(item("1", 1)))))
+                .thenReturn(Mono.error(new ProductServiceUnavailableException("product-service is unavailable: timeout", null)));
+        when(productServiceClient.reserveStock(anyString(), eq(List.of(item("2", 9)))))
+                .thenReturn(Mono.error(new StockReservationRejectedException("2", StockReservationFailure.Reason.INSUFFICIENT_STOCK)));
+        when(productServiceClient.releaseStock(anyString(), anyList())).thenReturn(Mono.empty());
+
+        BulkOrderResponse response = bulkOrderService.createOrders(List.of(order(item("1", 1)), order(item("2", 9))));
+
+        assertEquals(0, response.getCreated());
+        ArgumentCaptor<String> reserved = ArgumentCaptor.forClass(String.class);
+        verify(productServiceClient).reserveStock(reserved.capture(), eq(List.of(item("1", 1))));
+        verify(productServiceClient).releaseStock(reserved.getValue(), List.of(item("1", 1)));
+        verify(productServiceClient, times(1)).releaseStock(anyString(), anyList());
+    }
+
+    @Test
+    void shouldFailEveryOrderWithoutFallbackWhenProductServiceIsUnavailable() {
+        when(productServiceClient.reserveStock(anyString(), anyList()))
+                .thenReturn(Mono.error(new ProductServiceUnavailableException("product-service is unavailable", null)));
+        when(productServiceClient.releaseStock(anyString(), anyList())).thenReturn(Mono.empty());
+
+        BulkOrderResponse response = bulkOrderService.createOrders(List.of(order(item("1", 1)), order(item("2", 1))));
+
+        assertEquals(0, response.getCreated());
+        assertEquals(2, response.getFailed());
+        ArgumentCaptor<String> reserved = ArgumentCaptor.forClass(String.class);
+        verify(productServiceClient, times(1)).reserveStock(reserved.capture(), anyList());
+        // product-service may have taken the stock before the call failed
+        verify(productServiceClient).releaseStock(reserved.getValue(), List.of(item("1", 1), item("2", 1)));
+        verify(orderRepository, never()).insertUnordered(anyList());
+    }
+
+    @Test
+    void shouldReportInvalidOrdersWithoutReservingForThem() {
+        when(productServiceClient.reserveStock(anyString(), eq(List.of(item("1", 1)))))
+                .thenReturn(Mono.just(Map.of("1", product1)));
+        when(orderRepository.insertUnordered(anyList())).thenReturn(Set.of());
+        OrderRequest invalid = OrderRequest.builder().customerName("").customerEmail("john@example.com")
+                .orderLineItems(List.of(item("2", 1))).build();
+
+        BulkOrderResponse response = bulkOrderService.createOrders(List.of(invalid, order(item("1", 1))));
+
+        assertEquals(BulkOrderResponse.Status.INVALID, response.getResults().get(0).getStatus());
+        assertEquals("Customer name is required", response.getResults().get(0).getError());
+        assertEquals(BulkOrderResponse.Status.CREATED, response.getResults().get(1).getStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReleaseStockOfOrdersThatWereNotInserted() {
+        when(productServiceClient.reserveStock(anyString(), anyList()))
+                .thenReturn(Mono.just(Map.of("1", product1, "2", product2)));
+        when(orderRepository.insertUnordered(anyList())).thenReturn(Set.of(1));
+        when(productServiceClient.releaseStock(anyString(), anyList())).thenReturn(Mono.empty());
+
+        BulkOrderResponse response = bulkOrderService.createOrders(List.of(order(item("1", 1)), order(item("2", 4))));
+
+        assertEquals(1, response.getCreated());
+        assertEquals("Order could not be saved", response.getResults().get(1).getError());
+        // Only that order's part of the combined reservation is given back
+        ArgumentCaptor<String> reserved = ArgumentCaptor.forClass(String.class);
+        verify(productServiceClient).reserveStock(reserved.capture(), anyList());
+        verify(productServiceClient).releaseStock(reserved.getValue(), List.of(item("2", 4)));
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(events.capture(), eq(OutboxEvent.class));
+        assertEquals(List.of(response.getResults().get(0).getOrder().getId()),
+                events.getValue().stream().map(OutboxEvent::getOrderId).toList());
+    }
+
+    @Test
+    void shouldReleaseAllReservedStockWhenTheBulkInsertFails() {
+        when(productServiceClient.reserveStock(anyString(), anyList())).thenReturn(Mono.just(Map.of("1", product1)));
+        when(orderRepository.insertUnordered(anyList())).thenThrow(new RuntimeException("Database unavailable"));
+        when(productServiceClient.releaseStock(anyString(), anyList())).thenReturn(Mono.empty());
+
+        BulkOrderResponse response = bulkOrderService.createOrders(List.of(order(item("1", 1)), order(item("1", 2))));
+
+        assertEquals(0, response.getCreated());
+        ArgumentCaptor<String> reserved = ArgumentCaptor.forClass(String.class);
+        verify(productServiceClient).reserveStock(reserved.capture(), anyList());
+        verify(productServiceClient).releaseStock(reserved.getValue(), List.of(item("1", 3)));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    private static OrderRequest order(OrderLineItemDto... items) {
+        return OrderRequest.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .orderLineItems(List.of(items))
+                .build();
+    }
+
+    private static OrderLineItemDto item(String productId, int quantity) {
+        return OrderLineItemDto.builder().productId(productId).quantity(quantity).build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,216 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.model.IdempotencyRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates order creation by {@code Idempotency-Key}. Completed keys are answered from an in-process
+ * cache; the {@code idempotency_keys} collection is the source of truth shared by all instances and is
+ * where a key is claimed before the order is created, so two concurrent requests with the same key
+ * can never both create an order.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+    private final Cache<String, IdempotencyRecord> completed;
+
+    public IdempotencyStore(MongoTemplate mongoTemplate,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${idempotency.ttl:24h}") Duration ttl,
+                            @Value("${idempotency.max-size:100000}") long maxSize,
+                            @Value("${idempotency.claim-timeout:1m}") Duration claimTimeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+        this.completed = Caffeine.newBuilder()
+                .expireAfter(new UntilRecordExpires(ttl))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotencyKeys");
+    }
+
+    /**
+     * Runs {@code createOrder} the first time {@code key} is seen and returns its response. Repeats of the
+     * same request within the TTL get the original response without running it again. Reusing the key for
+     * a different request is rejected with 422, and a repeat that arrives while the original is still being
+     * processed with 409.
+     */
+    public OrderResponse execute(String key, OrderRequest orderRequest, Supplier<OrderResponse> createOrder) {
+        String requestHash = hash(orderRequest);
+        
+        IdempotencyRecord cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+        
+        Instant now = Instant.now();
+        String claimId = UUID.randomUUID().toString();
+        IdempotencyRecord existing = claim(key, requestHash, claimId, now);
+        if (existing != null) {
+            OrderResponse replayed = replay(existing, requestHash);
+            completed.put(key, existing);
+            return replayed;
+        }
+        
+        OrderResponse orderResponse;
+        try {
+            orderResponse = createOrder.get();
+        } catch (RuntimeException e) {
+            // Nothing was created, so a retry with the same key must be allowed to run again
+            mongoTemplate.remove(byClaim(key, claimId), IdempotencyRecord.class);
+            throw e;
+        }
+        
+        UpdateResult stored = mongoTemplate.updateFirst(byClaim(key, claimId), new Update().set("response", orderResponse),
+                IdempotencyRecord.class);
+        if (stored.getMatchedCount() == 0) {
+            // Took longer than the claim timeout and another request took the key over; that request's outcome is
+            // the one recorded
+            log.warn("Claim on idempotency key {} was taken over before order {} was created", key, orderResponse.getId());
+            return orderResponse;
+        }
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .key(key)
+                .requestHash(requestHash)
+                .response(orderResponse)
+                .createdAt(now)
+                .claimId(claimId)
+                .expiresAt(now.plus(ttl))
+                .build();
+        completed.put(key, record);
+        return orderResponse;
+    }
+
+    /**
+     * Claims the key for this request. Returns null if the claim succeeded, otherwise the record of the
+     * request that holds it.
+     */
+    private IdempotencyRecord claim(String key, String requestHash, String claimId, Instant now) {
+        try {
+            mongoTemplate.insert(IdempotencyRecord.builder()
+                    .key(key)
+                    .requestHash(requestHash)
+                    .createdAt(now)
+                    .claimId(claimId)
+                    .expiresAt(now.plus(ttl))
+                    .build());
+            return null;
+        } catch (DuplicateKeyException e) {
+            // Expired records linger until MongoDB's TTL monitor runs, and an unfinished claim older than the
+            // timeout belongs to a request that died; either can be taken over
+            Query stale = byKey(key).addCriteria(new Criteria().orOperator(
+                    Criteria.where("expiresAt").lt(now),
+                    Criteria.where("response").is(null).and("createdAt").lt(now.minus(claimTimeout))));
+            Update takeOver = new Update()
+                    .set("requestHash", requestHash)
+                    .unset("response")
+                    .set("createdAt", now)
+                    .set("claimId", claimId)
+                    .set("expiresAt", now.plus(ttl));
+            if (mongoTemplate.findAndModify(stale, takeOver, IdempotencyRecord.class) != null) {
+                return null;
+            }
+            
+            IdempotencyRecord existing = mongoTemplate.findById(key, IdempotencyRecord.class);
+            // Removed between the insert and the read because the original request failed; claim again
+            return existing != null ? existing : claim(key, requestHash, claimId, now);
+        }
+    }
+
+    private OrderResponse replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency key was already used for a different request: " + record.getKey());
+        }
+        if (record.getResponse() == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with idempotency key " + record.getKey() + " is still being processed");
+        }
+        
+        log.info("Replaying order {} for idempotency key: {}", record.getResponse().getId(), record.getKey());
+        return record.getResponse();
+    }
+
+    /**
+     * Keeps a completed key in memory only until its record expires in MongoDB, however often it is replayed, so
+     * that this instance does not keep answering a key that every other instance already lets be reused.
+     */
+    private static class UntilRecordExpires implements Expiry<String, IdempotencyRecord> {
+
+        private final Duration ttl;
+
+        UntilRecordExpires(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, IdempotencyRecord record, long currentTime) {
+            if (record.getExpiresAt() == null) {
+                return ttl.toNanos();
+            }
+            return Math.max(0, Duration.between(Instant.now(), record.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, record, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, IdempotencyRecord record, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static Query byKey(String key) {
+        return Query.query(Criteria.where("key").is(key));
+    }
+
+    private static Query byClaim(String key, String claimId) {
+        return byKey(key).addCriteria(Criteria.where("claimId").is(claimId));
+    }
+
+    private String hash(OrderRequest orderRequest) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(orderRequest)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash order request", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.model.IdempotencyRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyStoreTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private IdempotencyStore idempotencyStore;
+    private OrderRequest orderRequest;
+    private OrderResponse orderResponse;
+    private final AtomicInteger created = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(mongoTemplate, new ObjectMapper(), new SimpleMeterRegistry(),
+                Duration.ofHours(24), 100, Duration.ofMinutes(1));
+
+        orderRequest = OrderRequest.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .orderLineItems(List.of(OrderLineItemDto.builder().productId("1").quantity(2).build()))
+                .build();
+
+        orderResponse = OrderResponse.builder().id("order-1").customerName("John Doe").build();
+        lenient().when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    private Supplier<OrderResponse> createOrder() {
+        return () -> {
+            created.incrementAndGet();
+            return orderResponse;
+        };
+    }
+
+    @Test
+    void shouldCreateOrderOnceAndReplayFromMemory() {
+        OrderResponse first = idempotencyStore.execute("key-1", orderRequest, createOrder());
+        OrderResponse second = idempotencyStore.execute("key-1", orderRequest, createOrder());
+
+        assertSame(first, second);
+        assertEquals(1, created.get());
+        verify(mongoTemplate, times(1)).insert(any(IdempotencyRecord.class));
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(IdempotencyRecord.class));
+    }
+
+    @Test
+    void shouldReplayResponseStoredByAnotherInstance() {
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        when(mongoTemplate.insert(claim.capture())).thenThrow(new DuplicateKeyException("duplicate key"));
+        when(mongoTemplate.findById("key-1", IdempotencyRecord.class)).thenAnswer(invocation -> IdempotencyRecord.builder()
+                .key("key-1")
+                .requestHash(claim.getValue().getRequestHash())
+                .response(orderResponse)
+                .build());
+
+        OrderResponse replayed = idempotencyStore.execute("key-1", orderRequest, createOrder());
+
+        assertEquals("order-1", replayed.getId());
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void shouldNotKeepReplayedResponseInMemoryPastItsExpiry() {
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        when(mongoTemplate.insert(claim.capture())).thenThrow(new DuplicateKeyException("duplicate key"));
+        // Expires as it is read, so the next repeat has to go to MongoDB again
+        when(mongoTemplate.findById("key-1", IdempotencyRecord.class)).thenAnswer(invocation -> IdempotencyRecord.builder()
+                .key("key-1")
+                .requestHash(claim.getValue().getRequestHash())
+                .response(orderResponse)
+                .expiresAt(Instant.now())
+                .build());
+
+        idempotencyStore.execute("key-1", orderRequest, createOrder());
+        idempotencyStore.execute("key-1", orderRequest, createOrder());
+
+        verify(mongoTemplate, times(2)).findById("key-1", IdempotencyRecord.class);
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() {
+        idempotencyStore.execute("key-1", orderRequest, createOrder());
+        orderRequest.setCustomerName("Jane Smith");
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> idempotencyStore.execute("key-1", orderRequest, createOrder()));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatusCode());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void shouldRejectRepeatWhileOriginalIsInProgress() {
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        when(mongoTemplate.insert(claim.capture())).thenThrow(new DuplicateKeyException("duplicate key"));
+        when(mongoTemplate.findById("key-1", IdempotencyRecord.class)).thenAnswer(invocation -> IdempotencyRecord.builder()
+                .key("key-1")
+                .requestHash(claim.getValue().getRequestHash())
+                .build());
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> idempotencyStore.execute("key-1", orderRequest, createOrder()));
+
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void shouldOnlyCompleteItsOwnClaim() {
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        ArgumentCaptor<Query> completed = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.insert(claim.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+        // The claim timed out and another request took the key over
+        when(mongoTemplate.updateFirst(completed.capture(), any(Update.class), eq(IdempotencyRecord.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        idempotencyStore.execute("key-1", orderRequest, createOrder());
+        idempotencyStore.execute("key-1", orderRequest, createOrder());
+
+        assertEquals(claim.getAllValues().get(0).getClaimId(), completed.getAllValues().get(0).getQueryObject().get("claimId"));
+        // The lost claim's response is not replayed from memory
+        verify(mongoTemplate, times(2)).insert(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void shouldReleaseKeyWhenOrderCreationFails() {
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        ArgumentCaptor<Query> released = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.insert(claim.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThrows(RuntimeException.class, () -> idempotencyStore.execute("key-1", orderRequest, () -> {
+            throw new RuntimeException("Insufficient stock for product: 1");
+        }));
+
+        verify(mongoTemplate, times(1)).remove(released.capture(), eq(IdempotencyRecord.class));
+        assertEquals(claim.getValue().getClaimId(), released.getValue().getQueryObject().get("claimId"));
+
+        idempotencyStore.execute("key-1", orderRequest, createOrder());
+
+        assertEquals(1, created.get());
+    }
+}
\ No newline at end of file
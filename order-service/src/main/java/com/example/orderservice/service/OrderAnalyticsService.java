@@ -0,0 +1,61 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.DailyRevenue;
+import com.example.orderservice.dto.ProductQuantity;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Figures for the ops dashboards over orders dated in {@code [from, to)}, aggregated by MongoDB instead of
+ * from a full order listing.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderAnalyticsService {
+
+    // Pending orders are not priced yet and cancelled ones were never sold
+    static final Set<OrderStatus> SOLD = EnumSet.of(
+            OrderStatus.PLACED, OrderStatus.CONFIRMED, OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+
+    private final OrderRepository orderRepository;
+
+    public List<DailyRevenue> getRevenuePerDay(LocalDateTime from, LocalDateTime to) {
+        requireRange(from, to);
+        return orderRepository.revenuePerDay(from, to, SOLD);
+    }
+
+    public List<ProductQuantity> getTopProducts(LocalDateTime from, LocalDateTime to, int limit) {
+        requireRange(from, to);
+        return orderRepository.topProductsByQuantity(from, to, SOLD, limit);
+    }
+
+    /**
+     * Every status with its order count, including the ones no order in the range has.
+     */
+    public Map<OrderStatus, Long> getOrderCountsByStatus(LocalDateTime from, LocalDateTime to) {
+        requireRange(from, to);
+        Map<OrderStatus, Long> found = orderRepository.countByStatus(from, to);
+        Map<OrderStatus, Long> counts = new LinkedHashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, found.getOrDefault(status, 0L));
+        }
+        return counts;
+    }
+
+    private static void requireRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderAnalyticsServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 6, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 7, 1, 0, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private OrderAnalyticsService orderAnalyticsService;
+
+    @Test
+    void shouldCountEveryStatus() {
+        when(orderRepository.countByStatus(FROM, TO)).thenReturn(Map.of(OrderStatus.PLACED, 7L, OrderStatus.CANCELLED, 2L));
+
+        Map<OrderStatus, Long> counts = orderAnalyticsService.getOrderCountsByStatus(FROM, TO);
+
+        assertEquals(List.of(OrderStatus.values()), List.copyOf(counts.keySet()));
+        assertEquals(7L, counts.get(OrderStatus.PLACED));
+        assertEquals(2L, counts.get(OrderStatus.CANCELLED));
+        assertEquals(0L, counts.get(OrderStatus.PENDING));
+    }
+
+    @Test
+    void shouldOnlyCountSoldOrdersInRevenueAndTopProducts() {
+        orderAnalyticsService.getRevenuePerDay(FROM, TO);
+        orderAnalyticsService.getTopProducts(FROM, TO, 5);
+
+        verify(orderRepository).revenuePerDay(FROM, TO, OrderAnalyticsService.SOLD);
+        verify(orderRepository).topProductsByQuantity(FROM, TO, OrderAnalyticsService.SOLD, 5);
+        assertFalse(OrderAnalyticsService.SOLD.contains(OrderStatus.PENDING));
+        assertFalse(OrderAnalyticsService.SOLD.contains(OrderStatus.CANCELLED));
+    }
+
+    @Test
+    void shouldRejectEmptyRange() {
+        assertThrows(ResponseStatusException.class, () -> orderAnalyticsService.getRevenuePerDay(TO, FROM));
+        assertThrows(ResponseStatusException.class, () -> orderAnalyticsService.getOrderCountsByStatus(FROM, FROM));
+        verifyNoInteractions(orderRepository);
+    }
+}
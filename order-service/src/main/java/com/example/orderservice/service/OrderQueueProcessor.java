@@ -0,0 +1,277 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.client.StockReservationRejectedException;
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.outbox.Outbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Places the orders accepted as {@link OrderStatus#PENDING}. The {@code orders} collection is the queue:
+ * a fixed pool of workers claims the oldest pending order with a lease, reserves its stock, prices it and
+ * moves it to {@code PLACED}, or to {@code CANCELLED} when product-service refuses the reservation or the order
+ * cannot be priced, in which case the reserved stock is given back. While
+ * product-service is unavailable an order stays pending and is tried again after
+ * {@code order-queue.retry-delay}; the reservation is keyed by the order id, so trying again never takes the
+ * stock twice. An order whose worker died is taken over once its lease runs out.
+ */
+@Component
+@Slf4j
+public class OrderQueueProcessor implements SmartLifecycle {
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductServiceClient productServiceClient;
+    private final Outbox outbox;
+    private final OrderQueueProperties properties;
+    private final Timer lag;
+    private final Counter placed;
+    private final Counter cancelled;
+    private final Counter postponed;
+
+    // Lets an idle worker pick up a newly accepted order without waiting for the next poll
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    private volatile boolean running;
+    private ExecutorService workers;
+
+    public OrderQueueProcessor(MongoTemplate mongoTemplate,
+                               ProductServiceClient productServiceClient,
+                               Outbox outbox,
+                               OrderQueueProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.productServiceClient = productServiceClient;
+        this.outbox = outbox;
+        this.properties = properties;
+        this.lag = Timer.builder("orders.queue.lag")
+                .description("Time from accepting an order until it is placed or cancelled")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.placed = processed(meterRegistry, "placed");
+        this.cancelled = processed(meterRegistry, "cancelled");
+        this.postponed = processed(meterRegistry, "postponed");
+        Gauge.builder("orders.queue.depth", this, OrderQueueProcessor::depth)
+                .description("Orders waiting to be placed")
+                .register(meterRegistry);
+        TimeGauge.builder("orders.queue.oldest.age", this, TimeUnit.SECONDS, OrderQueueProcessor::oldestAgeSeconds)
+                .description("How long the oldest pending order has been waiting")
+                .register(meterRegistry);
+    }
+
+    private static Counter processed(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("orders.queue.processed")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Called after an order was accepted.
+     */
+    public void signal() {
+        if (running && wakeUps.availablePermits() < properties.getWorkers()) {
+            wakeUps.release();
+        }
+    }
+
+    @Override
+    public void start() {
+        // Without async acceptance no order is left pending, so there is nothing to drain
+        if (!properties.isAsync() || properties.getWorkers() <= 0) {
+            return;
+        }
+        running = true;
+        workers = Executors.newFixedThreadPool(properties.getWorkers(), new CustomizableThreadFactory("order-queue-"));
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::work);
+        }
+        log.info("Started {} order queue workers", properties.getWorkers());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (workers == null) {
+            return;
+        }
+        // Interrupted orders keep their lease and are taken over when it runs out
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                if (!processNext()) {
+                    wakeUps.tryAcquire(properties.getPollInterval().toMillis(), TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Claims and processes the oldest pending order. Returns false if there was none to claim.
+     */
+    boolean processNext() {
+        Order order;
+        try {
+            order = claimNext();
+        } catch (RuntimeException e) {
+            log.warn("Could not claim a pending order: {}", e.getMessage());
+            return false;
+        }
+        if (order == null) {
+            return false;
+        }
+        try {
+            process(order);
+        } catch (RuntimeException e) {
+            // Left claimed; it is tried again when the lease runs out
+            log.error("Processing pending order {} failed: {}", order.getId(), e.getMessage());
+        }
+        return true;
+    }
+
+    Order claimNext() {
+        // Mongo dates have millisecond precision; the lease doubles as the claim token, so it must round-trip exactly.
+        // This query's shape, and those of depth() and oldestAgeSeconds(), are explained by OrderQueryPlanVerifier.
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Query query = Query.query(Criteria.where("orderStatus").is(OrderStatus.PENDING).and("claimedUntil").not().gt(now))
+                .with(Sort.by("orderDate"));
+        return mongoTemplate.findAndModify(query, new Update().set("claimedUntil", now.plus(properties.getLease())),
+                FindAndModifyOptions.options().returnNew(true), Order.class);
+    }
+
+    void process(Order order) {
+        List<OrderLineItemDto> items = order.getOrderLineItems().stream()
+                .map(item -> new OrderLineItemDto(item.getProductId(), item.getQuantity()))
+                .toList();
+
+        // Keyed by the order, so a reservation repeated after a timeout or by the worker that takes the order over
+        // returns the stock already taken instead of taking it again
+        Map<String, ProductDto> products;
+        try {
+            products = productServiceClient.reserveStock(order.getId(), items).block();
+        } catch (StockReservationRejectedException e) {
+            cancel(order, e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            postpone(order);
+            return;
+        }
+
+        Order priced;
+        try {
+            priced = OrderService.buildOrder(
+                    new OrderRequest(order.getCustomerName(), order.getCustomerEmail(), items), products);
+        } catch (RuntimeException e) {
+            // Pricing would fail the same way on every attempt, so the order is cancelled rather than tried again
+            productServiceClient.releaseStock(order.getId(), items).block();
+            cancel(order, "it could not be priced: " + e.getMessage());
+            return;
+        }
+        // The reservation stays with the order when the claim was lost or the update failed: whichever worker
+        // completes the order next gets the same reservation back
+        if (complete(order, new Update()
+                .set("orderLineItems", priced.getOrderLineItems())
+                .set("totalAmount", priced.getTotalAmount())
+                .set("orderStatus", OrderStatus.PLACED), OutboxEvent.Type.ORDER_PLACED)) {
+            placed.increment();
+        }
+    }
+
+    private void cancel(Order order, String reason) {
+        if (complete(order, new Update().set("orderStatus", OrderStatus.CANCELLED), OutboxEvent.Type.ORDER_CANCELLED)) {
+            cancelled.increment();
+            log.info("Pending order {} cancelled: {}", order.getId(), reason);
+        }
+    }
+
+    /**
+     * Applies the final update and records its event if this worker still holds the order's claim, and
+     * records the lag.
+     */
+    private boolean complete(Order order, Update update, OutboxEvent.Type eventType) {
+        Order completed = outbox.inTransaction(() -> {
+            Order updated = mongoTemplate.findAndModify(claimed(order), update.unset("claimedUntil"),
+                    FindAndModifyOptions.options().returnNew(true), Order.class);
+            if (updated != null) {
+                outbox.record(eventType, OrderService.mapToOrderResponse(updated));
+            }
+            return updated;
+        });
+        if (completed != null) {
+            lag.record(Duration.between(order.getOrderDate(), LocalDateTime.now()));
+        }
+        return completed != null;
+    }
+
+    private void postpone(Order order) {
+        Instant retryAt = Instant.now().plus(properties.getRetryDelay()).truncatedTo(ChronoUnit.MILLIS);
+        mongoTemplate.updateFirst(claimed(order), new Update().set("claimedUntil", retryAt), Order.class);
+        postponed.increment();
+        log.warn("Pending order {} postponed until {}: product-service is unavailable", order.getId(), retryAt);
+    }
+
+    private static Query claimed(Order order) {
+        return Query.query(Criteria.where("id").is(order.getId())
+                .and("orderStatus").is(OrderStatus.PENDING)
+                .and("claimedUntil").is(order.getClaimedUntil()));
+    }
+
+    private double depth() {
+        return mongoTemplate.count(Query.query(Criteria.where("orderStatus").is(OrderStatus.PENDING)), Order.class);
+    }
+
+    private double oldestAgeSeconds() {
+        Query oldest = Query.query(Criteria.where("orderStatus").is(OrderStatus.PENDING)).with(Sort.by("orderDate"));
+        oldest.fields().include("orderDate");
+        Order order = mongoTemplate.findOne(oldest, Order.class);
+        return order == null ? 0 : Duration.between(order.getOrderDate(), LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.example.orderservice.service;
+
+import com.example.common.outbox.OutboxRelay;
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.client.ProductServiceUnavailableException;
+import com.example.orderservice.client.StockReservationRejectedException;
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.dto.StockReservationFailure;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderLineItem;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.outbox.Outbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderQueueProcessorTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductServiceClient productServiceClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrderQueueProcessor processor;
+
+    private final Instant claim = Instant.now().plusSeconds(30).truncatedTo(ChronoUnit.MILLIS);
+
+    private final Order pendingOrder = Order.builder()
+            .id("1")
+            .customerName("John Doe")
+            .customerEmail("john@example.com")
+            .orderLineItems(List.of(OrderLineItem.builder().productId("p1").quantity(2).build()))
+            .orderDate(LocalDateTime.now().minusSeconds(3))
+            .orderStatus(OrderStatus.PENDING)
+            .claimedUntil(claim)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        processor = new OrderQueueProcessor(mongoTemplate, productServiceClient,
+                new Outbox(mongoTemplate, null, mock(OutboxRelay.class)), new OrderQueueProperties(), meterRegistry);
+    }
+
+    @Test
+    void shouldNotStartWorkersWithoutAsyncAcceptance() {
+        processor.start();
+
+        assertFalse(processor.isRunning());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void shouldPlaceClaimedOrderWithReservedPrices() {
+        when(productServiceClient.reserveStock("1", List.of(new OrderLineItemDto("p1", 2)))).thenReturn(Mono.just(Map.of("p1",
+                ProductDto.builder().id("p1").name("Product 1").price(Money.of(new BigDecimal("10.00"))).build())));
+        completeWith(OrderStatus.PLACED);
+
+        processor.process(pendingOrder);
+
+        Document update = capturedUpdate();
+        Document set = update.get("$set", Document.class);
+        assertEquals(OrderStatus.PLACED, set.get("orderStatus"));
+        assertEquals(Money.of(new BigDecimal("20.00")), set.get("totalAmount"));
+        assertTrue(update.get("$unset", Document.class).containsKey("claimedUntil"));
+        assertEquals(claim, capturedQuery().getQueryObject().get("claimedUntil"));
+        assertEquals(1, meterRegistry.counter("orders.queue.processed", "outcome", "placed").count());
+        assertEquals(1, meterRegistry.timer("orders.queue.lag").count());
+        verify(productServiceClient, never()).releaseStock(any(), anyList());
+        assertEquals(OutboxEvent.Type.ORDER_PLACED, recordedEvent().getType());
+    }
+
+    @Test
+    void shouldCancelOrderWhenReservationIsRejected() {
+        when(productServiceClient.reserveStock(eq("1"), anyList())).thenReturn(Mono.error(
+                new StockReservationRejectedException("p1", StockReservationFailure.Reason.INSUFFICIENT_STOCK)));
+        completeWith(OrderStatus.CANCELLED);
+
+        processor.process(pendingOrder);
+
+        assertEquals(OrderStatus.CANCELLED, capturedUpdate().get("$set", Document.class).get("orderStatus"));
+        assertEquals(1, meterRegistry.counter("orders.queue.processed", "outcome", "cancelled").count());
+        OutboxEvent event = recordedEvent();
+        assertEquals(OutboxEvent.Type.ORDER_CANCELLED, event.getType());
+        assertEquals(OrderStatus.CANCELLED, event.getOrder().getOrderStatus());
+    }
+
+    @Test
+    void shouldPostponeOrderWhileProductServiceIsUnavailable() {
+        when(productServiceClient.reserveStock(eq("1"), anyList()))
+                .thenReturn(Mono.error(new ProductServiceUnavailableException("product-service is unavailable", null)));
+
+        processor.process(pendingOrder);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Order.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertFalse(set.containsKey("orderStatus"));
+        assertTrue(((Instant) set.get("claimedUntil")).isAfter(Instant.now()));
+        assertEquals(1, meterRegistry.counter("orders.queue.processed", "outcome", "postponed").count());
+        assertEquals(0, meterRegistry.timer("orders.queue.lag").count());
+        verify(mongoTemplate, never()).insert(anyList(), eq(OutboxEvent.class));
+    }
+
+    @Test
+    void shouldLeaveReservationToTheWorkerThatTookTheOrderOver() {
+        when(productServiceClient.reserveStock(eq("1"), anyList())).thenReturn(Mono.just(Map.of("p1",
+                ProductDto.builder().id("p1").name("Product 1").price(Money.of(new BigDecimal("10.00"))).build())));
+
+        processor.process(pendingOrder);
+
+        verify(productServiceClient, never()).releaseStock(any(), anyList());
+        assertEquals(0, meterRegistry.counter("orders.queue.processed", "outcome", "placed").count());
+        verify(mongoTemplate, never()).insert(anyList(), eq(OutboxEvent.class));
+    }
+
+    @Test
+    void shouldRepeatReservationUnderTheSameKeyAfterTimeout() {
+        // The first attempt timed out after product-service may already have taken the stock
+        when(productServiceClient.reserveStock(eq("1"), anyList()))
+                .thenReturn(Mono.error(new ProductServiceUnavailableException("product-service is unavailable", null)))
+                .thenReturn(Mono.just(Map.of("p1",
+                        ProductDto.builder().id("p1").name("Product 1").price(Money.of(new BigDecimal("10.00"))).build())));
+
+        processor.process(pendingOrder);
+        completeWith(OrderStatus.PLACED);
+        processor.process(pendingOrder);
+
+        verify(productServiceClient, times(2)).reserveStock("1", List.of(new OrderLineItemDto("p1", 2)));
+        assertEquals(1, meterRegistry.counter("orders.queue.processed", "outcome", "postponed").count());
+        assertEquals(1, meterRegistry.counter("orders.queue.processed", "outcome", "placed").count());
+    }
+
+    @Test
+    void shouldReleaseStockAndCancelOrderThatCannotBePriced() {
+        // A product missing from the reservation's answer makes pricing fail on every attempt
+        when(productServiceClient.reserveStock(eq("1"), anyList())).thenReturn(Mono.just(Map.of()));
+        when(productServiceClient.releaseStock(eq("1"), anyList())).thenReturn(Mono.empty());
+        completeWith(OrderStatus.CANCELLED);
+
+        processor.process(pendingOrder);
+
+        verify(productServiceClient).releaseStock("1", List.of(new OrderLineItemDto("p1", 2)));
+        assertEquals(OrderStatus.CANCELLED, capturedUpdate().get("$set", Document.class).get("orderStatus"));
+        assertEquals(1, meterRegistry.counter("orders.queue.processed", "outcome", "cancelled").count());
+        assertEquals(OutboxEvent.Type.ORDER_CANCELLED, recordedEvent().getType());
+    }
+
+    @Test
+    void shouldReportNothingToDoWhenNoOrderIsPending() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Order.class)))
+                .thenReturn(null);
+
+        assertFalse(processor.processNext());
+        verifyNoInteractions(productServiceClient);
+    }
+
+    private void completeWith(OrderStatus status) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Order.class)))
+                .thenAnswer(invocation -> Order.builder()
+                        .id(pendingOrder.getId())
+                        .customerName(pendingOrder.getCustomerName())
+                        .customerEmail(pendingOrder.getCustomerEmail())
+                        .orderLineItems(pendingOrder.getOrderLineItems())
+                        .orderDate(pendingOrder.getOrderDate())
+                        .orderStatus(status)
+                        .build());
+    }
+
+    private Document capturedUpdate() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Order.class));
+        return update.getValue().getUpdateObject();
+    }
+
+    private Query capturedQuery() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(Order.class));
+        return query.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private OutboxEvent recordedEvent() {
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(events.capture(), eq(OutboxEvent.class));
+        return events.getValue().get(0);
+    }
+}
\ No newline at end of file
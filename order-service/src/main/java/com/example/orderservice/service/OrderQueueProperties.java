@@ -0,0 +1,31 @@
+package com.example.orderservice.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Asynchronous order acceptance, bound from {@code order-queue.*}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "order-queue")
+public class OrderQueueProperties {
+
+    /** Answer {@code POST /api/orders} with 202 and a PENDING order that the workers place later. */
+    private boolean async = false;
+
+    /** Worker threads draining the queue on this instance while {@code async} is on; 0 disables processing. */
+    private int workers = 4;
+
+    /** How long an idle worker waits before looking for pending orders again. */
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /** How long a worker owns a claimed order; after that another worker may take it over. */
+    private Duration lease = Duration.ofSeconds(30);
+
+    /** Delay before an order is tried again after product-service was unavailable. */
+    private Duration retryDelay = Duration.ofSeconds(5);
+}
\ No newline at end of file
@@ -1,23 +1,41 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.client.ProductReplica;
 import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.client.StockReservationRejectedException;
 import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderPageResponse;
 import com.example.orderservice.dto.OrderRequest;
 import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderSummary;
 import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.dto.StockReservationFailure;
+import com.example.orderservice.model.Money;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.OrderLineItem;
 import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.outbox.Outbox;
 import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.service.OrderStageTimers.Stage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Currency;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -26,60 +44,115 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final ProductServiceClient productServiceClient;
+    private final ProductReplica productReplica;
+    private final OrderQueueProcessor orderQueueProcessor;
+    private final Outbox outbox;
+    private final OrderStageTimers stageTimers;
 
     public OrderResponse createOrder(OrderRequest orderRequest) {
         log.info("Creating order for customer: {}", orderRequest.getCustomerName());
         
-        List<OrderLineItem> orderLineItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<OrderLineItemDto> items = orderRequest.getOrderLineItems();
+        int lineItems = items.size();
+        stageTimers.time(Stage.VALIDATION, lineItems, () -> rejectKnownShortages(productReplica, items));
         
-        for (OrderLineItemDto itemDto : orderRequest.getOrderLineItems()) {
-            ProductDto productDto = productServiceClient.getProductById(itemDto.getProductId());
-            
-            if (productDto == null) {
-                throw new RuntimeException("Product not found with id: " + itemDto.getProductId());
-            }
-            
-            if (productDto.getStock() < itemDto.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for product: " + productDto.getName());
-            }
-            
-            OrderLineItem orderLineItem = OrderLineItem.builder()
-                    .productId(productDto.getId())
-                    .productName(productDto.getName())
-                    .price(productDto.getPrice())
-                    .quantity(itemDto.getQuantity())
-                    .build();
-            
-            orderLineItems.add(orderLineItem);
-            
-            // Calculate line item total and add to order total
-            BigDecimal lineTotal = productDto.getPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity()));
-            totalAmount = totalAmount.add(lineTotal);
+        // The order's id is also the reservation's, so the stock can be given back even if the reservation
+        // timed out after product-service had already taken it
+        String orderId = new ObjectId().toHexString();
+        Order savedOrder;
+        try {
+            // One round trip both checks and takes the stock, and returns the catalogue data to price the order with
+            Map<String, ProductDto> products = stageTimers.time(Stage.RESERVATION, lineItems,
+                    () -> productServiceClient.reserveStock(orderId, items).block());
+            Order order = stageTimers.time(Stage.PRICING, lineItems, () -> buildOrder(orderRequest, products));
+            order.setId(orderId);
+            savedOrder = stageTimers.time(Stage.PERSISTENCE, lineItems, () -> save(order, OutboxEvent.Type.ORDER_CREATED));
+        } catch (StockReservationRejectedException e) {
+            // Nothing was taken
+            throw e;
+        } catch (RuntimeException e) {
+            productServiceClient.releaseStock(orderId, items).block();
+            throw e;
         }
+        log.info("Order created with ID: {}", savedOrder.getId());
+        
+        return mapToOrderResponse(savedOrder);
+    }
+
+    /**
+     * Refuses the order without calling product-service if the {@link ProductReplica} shows a product is short
+     * on stock; product-service would refuse the reservation as well. Sold-out products that are still being
+     * ordered are typically in the replica. Shared by the blocking and the reactive order paths.
+     */
+    static void rejectKnownShortages(ProductReplica productReplica, List<OrderLineItemDto> items) {
+        productReplica.findShortProduct(items).ifPresent(productId -> {
+            throw new StockReservationRejectedException(productId, StockReservationFailure.Reason.INSUFFICIENT_STOCK);
+        });
+    }
+
+    /**
+     * Stores the order as {@link OrderStatus#PENDING} without calling product-service. Stock is reserved and
+     * the order priced later by {@link OrderQueueProcessor}.
+     */
+    public OrderResponse acceptOrder(OrderRequest orderRequest) {
+        List<OrderLineItem> orderLineItems = orderRequest.getOrderLineItems().stream()
+                .map(item -> OrderLineItem.builder()
+                        .productId(item.getProductId())
+                        .quantity(item.getQuantity())
+                        .build())
+                .collect(Collectors.toList());
         
-        Order order = Order.builder()
+        Order savedOrder = save(Order.builder()
                 .customerName(orderRequest.getCustomerName())
                 .customerEmail(orderRequest.getCustomerEmail())
                 .orderLineItems(orderLineItems)
-                .totalAmount(totalAmount)
                 .orderDate(LocalDateTime.now())
-                .orderStatus(OrderStatus.PLACED)
-                .build();
-        
-        Order savedOrder = orderRepository.save(order);
-        log.info("Order created with ID: {}", savedOrder.getId());
+                .orderStatus(OrderStatus.PENDING)
+                .build(), OutboxEvent.Type.ORDER_ACCEPTED);
+        orderQueueProcessor.signal();
+        log.info("Order accepted with ID: {}", savedOrder.getId());
         
         return mapToOrderResponse(savedOrder);
     }
 
+    private Order save(Order order, OutboxEvent.Type eventType) {
+        return outbox.inTransaction(() -> {
+            Order savedOrder = orderRepository.save(order);
+            outbox.record(eventType, mapToOrderResponse(savedOrder));
+            return savedOrder;
+        });
+    }
+
     public List<OrderResponse> getAllOrders() {
         List<Order> orders = orderRepository.findAll();
         return orders.stream()
-                .map(this::mapToOrderResponse)
+                .map(OrderService::mapToOrderResponse)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Keyset pagination in {@code _id} order: each page is an index range scan starting after the
+     * previous page's last id, so the cost of a page does not grow with how deep into the collection it is.
+     */
+    public OrderPageResponse getOrdersPage(String after, int limit) {
+        // Fetch one extra order to learn whether another page follows
+        List<Order> orders = after == null
+                ? orderRepository.findAllBy(pageRequest(limit + 1))
+                : orderRepository.findByIdGreaterThan(cursorOf(after), pageRequest(limit + 1));
+        
+        return toPage(orders, limit);
+    }
+    
+    /**
+     * Hands every order to the consumer while iterating a MongoDB cursor, so the whole collection
+     * is never held in memory at once.
+     */
+    public void streamAllOrders(Consumer<OrderResponse> consumer) {
+        try (Stream<Order> orders = orderRepository.streamAllBy()) {
+            orders.map(OrderService::mapToOrderResponse).forEach(consumer);
+        }
+    }
+    
     public OrderResponse getOrderById(String id) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
@@ -90,11 +163,100 @@ public class OrderService {
     public List<OrderResponse> getOrdersByCustomerEmail(String email) {
         List<Order> orders = orderRepository.findByCustomerEmail(email);
         return orders.stream()
-                .map(this::mapToOrderResponse)
+                .map(OrderService::mapToOrderResponse)
                 .collect(Collectors.toList());
     }
     
-    private OrderResponse mapToOrderResponse(Order order) {
+    public List<OrderResponse> getOrdersByCustomerEmail(String email, int page, int limit) {
+        return orderRepository.findByCustomerEmailOrderByOrderDateDesc(email, PageRequest.of(page, limit)).stream()
+                .map(OrderService::mapToOrderResponse)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Reads only the summary fields; all of the customer's orders when {@code limit} is null.
+     */
+    public List<OrderSummary> getOrderSummariesByCustomerEmail(String email, int page, Integer limit) {
+        return orderRepository.findSummariesByCustomerEmailOrderByOrderDateDesc(email, summaryPage(page, limit));
+    }
+    
+    static Pageable summaryPage(int page, Integer limit) {
+        return limit == null ? Pageable.unpaged() : PageRequest.of(page, limit);
+    }
+    
+    // Ids are ObjectIds in MongoDB; a plain string would never compare greater than them
+    static ObjectId cursorOf(String after) {
+        if (!ObjectId.isValid(after)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + after);
+        }
+        return new ObjectId(after);
+    }
+    
+    static Pageable pageRequest(int size) {
+        return PageRequest.of(0, size, Sort.by("id"));
+    }
+    
+    /**
+     * Builds a page from up to {@code limit + 1} orders; the extra order only signals that another page follows.
+     */
+    static OrderPageResponse toPage(List<Order> orders, int limit) {
+        List<OrderResponse> items = orders.stream()
+                .limit(limit)
+                .map(OrderService::mapToOrderResponse)
+                .collect(Collectors.toList());
+        
+        return OrderPageResponse.builder()
+                .items(items)
+                .nextCursor(orders.size() > limit ? items.get(items.size() - 1).getId() : null)
+                .build();
+    }
+    
+    /**
+     * Prices the order from the reserved products. Stock has already been checked and taken by the
+     * reservation. Shared by the blocking and the reactive order paths. The total is summed in minor units,
+     * so pricing allocates nothing beyond the line items themselves.
+     */
+    static Order buildOrder(OrderRequest orderRequest, Map<String, ProductDto> products) {
+        List<OrderLineItem> orderLineItems = new ArrayList<>(orderRequest.getOrderLineItems().size());
+        long totalMinorUnits = 0;
+        Currency currency = Money.DEFAULT_CURRENCY;
+        
+        for (OrderLineItemDto itemDto : orderRequest.getOrderLineItems()) {
+            ProductDto productDto = products.get(itemDto.getProductId());
+            
+            if (productDto == null) {
+                throw new RuntimeException("Product not found with id: " + itemDto.getProductId());
+            }
+            
+            OrderLineItem orderLineItem = OrderLineItem.builder()
+                    .productId(productDto.getId())
+                    .productName(productDto.getName())
+                    .price(productDto.getPrice())
+                    .quantity(itemDto.getQuantity())
+                    .build();
+            
+            orderLineItems.add(orderLineItem);
+            
+            // Calculate line item total and add to order total
+            Money price = productDto.getPrice();
+            if (!price.currency().equals(currency)) {
+                throw new IllegalArgumentException("Product " + productDto.getId() + " is not priced in " + currency);
+            }
+            totalMinorUnits = Math.addExact(totalMinorUnits,
+                    Math.multiplyExact(price.minorUnits(), itemDto.getQuantity()));
+        }
+        
+        return Order.builder()
+                .customerName(orderRequest.getCustomerName())
+                .customerEmail(orderRequest.getCustomerEmail())
+                .orderLineItems(orderLineItems)
+                .totalAmount(new Money(totalMinorUnits, currency))
+                .orderDate(LocalDateTime.now())
+                .orderStatus(OrderStatus.PLACED)
+                .build();
+    }
+    
+    static OrderResponse mapToOrderResponse(Order order) {
         return OrderResponse.builder()
                 .id(order.getId())
                 .customerName(order.getCustomerName())
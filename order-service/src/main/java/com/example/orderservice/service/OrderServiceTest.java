@@ -1,30 +1,53 @@
 package com.example.orderservice.service;
 
+import com.example.common.outbox.OutboxRelay;
+import com.example.orderservice.client.ProductReplica;
 import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.client.ProductServiceUnavailableException;
+import com.example.orderservice.client.StockReservationRejectedException;
 import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderPageResponse;
 import com.example.orderservice.dto.OrderRequest;
 import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderSummary;
 import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.dto.StockReservationFailure;
+import com.example.orderservice.model.Money;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.OrderLineItem;
 import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.outbox.Outbox;
 import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +59,20 @@ public class OrderServiceTest {
     @Mock
     private ProductServiceClient productServiceClient;
 
+    @Mock
+    private ProductReplica productReplica;
+
+    @Mock
+    private OrderQueueProcessor orderQueueProcessor;
+
+    @Spy
+    private Outbox outbox = new Outbox(mock(MongoTemplate.class), null, mock(OutboxRelay.class));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private OrderStageTimers stageTimers = new OrderStageTimers(meterRegistry);
+
     @InjectMocks
     private OrderService orderService;
 
@@ -60,14 +97,14 @@ public class OrderServiceTest {
                 .id("1")
                 .name("Product 1")
                 .description("Description 1")
-                .price(new BigDecimal("10.99"))
+                .price(Money.of(new BigDecimal("10.99")))
                 .stock(5)
                 .build();
 
         OrderLineItem orderLineItem = OrderLineItem.builder()
                 .productId("1")
                 .productName("Product 1")
-                .price(new BigDecimal("10.99"))
+                .price(Money.of(new BigDecimal("10.99")))
                 .quantity(2)
                 .build();
 
@@ -76,7 +113,7 @@ public class OrderServiceTest {
                 .customerName("John Doe")
                 .customerEmail("john@example.com")
                 .orderLineItems(List.of(orderLineItem))
-                .totalAmount(new BigDecimal("21.98"))
+                .totalAmount(Money.of(new BigDecimal("21.98")))
                 .orderDate(LocalDateTime.now())
                 .orderStatus(OrderStatus.PLACED)
                 .build();
@@ -84,7 +121,7 @@ public class OrderServiceTest {
 
     @Test
     void shouldCreateOrder() {
-        when(productServiceClient.getProductById("1")).thenReturn(productDto);
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems()))).thenReturn(Mono.just(Map.of("1", productDto)));
         when(orderRepository.save(any(Order.class))).thenReturn(order);
 
         OrderResponse orderResponse = orderService.createOrder(orderRequest);
@@ -94,33 +131,114 @@ public class OrderServiceTest {
         assertEquals("John Doe", orderResponse.getCustomerName());
         assertEquals(OrderStatus.PLACED, orderResponse.getOrderStatus());
         
-        verify(productServiceClient, times(1)).getProductById("1");
+        verify(productServiceClient, times(1)).reserveStock(anyString(), eq(orderRequest.getOrderLineItems()));
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(productServiceClient, never()).releaseStock(any(), anyList());
+        verify(outbox).record(eq(OutboxEvent.Type.ORDER_CREATED), argThat(created -> created.getId().equals("1")));
+        assertEquals(4, meterRegistry.get("order.create.stage").tags("items", "1", "outcome", "success").timers().size());
+    }
+
+    @Test
+    void shouldRejectOrderForProductKnownToBeShortWithoutReservingStock() {
+        when(productReplica.findShortProduct(orderRequest.getOrderLineItems())).thenReturn(Optional.of("1"));
+
+        StockReservationRejectedException exception = assertThrows(StockReservationRejectedException.class,
+                () -> orderService.createOrder(orderRequest));
+
+        assertEquals(StockReservationFailure.Reason.INSUFFICIENT_STOCK, exception.getReason());
+        verifyNoInteractions(productServiceClient, orderRepository);
     }
 
     @Test
     void shouldThrowExceptionWhenProductNotFound() {
-        when(productServiceClient.getProductById("1")).thenReturn(null);
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems())))
+                .thenReturn(Mono.error(new StockReservationRejectedException("1", StockReservationFailure.Reason.NOT_FOUND)));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             orderService.createOrder(orderRequest);
         });
 
         assertTrue(exception.getMessage().contains("Product not found"));
+        verify(orderRepository, never()).save(any(Order.class));
     }
 
     @Test
     void shouldThrowExceptionWhenInsufficientStock() {
-        // Update product stock to be less than requested quantity
-        productDto.setStock(1);
-        
-        when(productServiceClient.getProductById("1")).thenReturn(productDto);
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems())))
+                .thenReturn(Mono.error(new StockReservationRejectedException("1", StockReservationFailure.Reason.INSUFFICIENT_STOCK)));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             orderService.createOrder(orderRequest);
         });
 
         assertTrue(exception.getMessage().contains("Insufficient stock"));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(productServiceClient, never()).releaseStock(any(), anyList());
+    }
+
+    @Test
+    void shouldReleaseReservedStockWhenOrderCannotBeSaved() {
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems()))).thenReturn(Mono.just(Map.of("1", productDto)));
+        when(orderRepository.save(any(Order.class))).thenThrow(new RuntimeException("MongoDB unavailable"));
+        when(productServiceClient.releaseStock(anyString(), eq(orderRequest.getOrderLineItems()))).thenReturn(Mono.empty());
+
+        Exception exception = assertThrows(RuntimeException.class, () -> orderService.createOrder(orderRequest));
+
+        assertEquals("MongoDB unavailable", exception.getMessage());
+        verify(productServiceClient, times(1)).releaseStock(anyString(), eq(orderRequest.getOrderLineItems()));
+    }
+
+    @Test
+    void shouldReleaseStockUnderTheOrderIdWhenReservationTimesOut() {
+        // product-service may have taken the stock before the response was lost
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems())))
+                .thenReturn(Mono.error(new ProductServiceUnavailableException("product-service is unavailable: timeout", null)));
+        when(productServiceClient.releaseStock(anyString(), eq(orderRequest.getOrderLineItems()))).thenReturn(Mono.empty());
+
+        assertThrows(ProductServiceUnavailableException.class, () -> orderService.createOrder(orderRequest));
+
+        ArgumentCaptor<String> reserved = ArgumentCaptor.forClass(String.class);
+        verify(productServiceClient).reserveStock(reserved.capture(), eq(orderRequest.getOrderLineItems()));
+        verify(productServiceClient).releaseStock(reserved.getValue(), orderRequest.getOrderLineItems());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void shouldSaveOrderUnderItsReservationId() {
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems())))
+                .thenReturn(Mono.just(Map.of("1", productDto)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderResponse orderResponse = orderService.createOrder(orderRequest);
+
+        verify(productServiceClient).reserveStock(orderResponse.getId(), orderRequest.getOrderLineItems());
+        assertTrue(ObjectId.isValid(orderResponse.getId()));
+    }
+
+    @Test
+    void shouldReserveAllLineItemsWithSingleCall() {
+        ProductDto productDto2 = ProductDto.builder()
+                .id("2")
+                .name("Product 2")
+                .price(Money.of(new BigDecimal("5.00")))
+                .stock(10)
+                .build();
+        
+        orderRequest.setOrderLineItems(List.of(
+                OrderLineItemDto.builder().productId("1").quantity(2).build(),
+                OrderLineItemDto.builder().productId("2").quantity(3).build(),
+                OrderLineItemDto.builder().productId("1").quantity(1).build()));
+        
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems())))
+                .thenReturn(Mono.just(Map.of("1", productDto, "2", productDto2)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        OrderResponse orderResponse = orderService.createOrder(orderRequest);
+        
+        assertEquals(3, orderResponse.getOrderLineItems().size());
+        assertEquals(Money.of(new BigDecimal("47.97")), orderResponse.getTotalAmount());
+        verify(productServiceClient, times(1)).reserveStock(anyString(), eq(orderRequest.getOrderLineItems()));
+        verify(productServiceClient, never()).getProductById(any());
     }
 
     @Test
@@ -130,7 +248,7 @@ public class OrderServiceTest {
                 .customerName("Jane Smith")
                 .customerEmail("jane@example.com")
                 .orderLineItems(new ArrayList<>())
-                .totalAmount(new BigDecimal("15.99"))
+                .totalAmount(Money.of(new BigDecimal("15.99")))
                 .orderDate(LocalDateTime.now())
                 .orderStatus(OrderStatus.PLACED)
                 .build();
@@ -163,6 +281,26 @@ public class OrderServiceTest {
         });
     }
     
+    @Test
+    void shouldAcceptOrderAsPendingWithoutCallingProductService() {
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order saved = invocation.getArgument(0);
+            saved.setId("1");
+            return saved;
+        });
+        
+        OrderResponse orderResponse = orderService.acceptOrder(orderRequest);
+        
+        assertEquals("1", orderResponse.getId());
+        assertEquals(OrderStatus.PENDING, orderResponse.getOrderStatus());
+        assertNull(orderResponse.getTotalAmount());
+        assertEquals(2, orderResponse.getOrderLineItems().get(0).getQuantity());
+        assertNull(orderResponse.getOrderLineItems().get(0).getPrice());
+        verify(orderQueueProcessor).signal();
+        verify(outbox).record(eq(OutboxEvent.Type.ORDER_ACCEPTED), argThat(accepted -> accepted.getOrderStatus() == OrderStatus.PENDING));
+        verifyNoInteractions(productServiceClient);
+    }
+    
     @Test
     void shouldGetOrdersByCustomerEmail() {
         when(orderRepository.findByCustomerEmail("john@example.com")).thenReturn(List.of(order));
@@ -172,4 +310,63 @@ public class OrderServiceTest {
         assertEquals(1, orderResponses.size());
         assertEquals("John Doe", orderResponses.get(0).getCustomerName());
     }
+    
+    @Test
+    void shouldGetCustomerOrdersPageNewestFirst() {
+        when(orderRepository.findByCustomerEmailOrderByOrderDateDesc("john@example.com", PageRequest.of(2, 10)))
+                .thenReturn(List.of(order));
+        
+        List<OrderResponse> orderResponses = orderService.getOrdersByCustomerEmail("john@example.com", 2, 10);
+        
+        assertEquals(1, orderResponses.size());
+        assertEquals("1", orderResponses.get(0).getId());
+    }
+    
+    @Test
+    void shouldReadAllCustomerOrderSummariesWhenUnpaged() {
+        OrderSummary summary = new OrderSummary("1", LocalDateTime.now(), OrderStatus.PLACED, Money.of(new BigDecimal("21.98")));
+        when(orderRepository.findSummariesByCustomerEmailOrderByOrderDateDesc("john@example.com", Pageable.unpaged()))
+                .thenReturn(List.of(summary));
+        
+        List<OrderSummary> summaries = orderService.getOrderSummariesByCustomerEmail("john@example.com", 0, null);
+        
+        assertEquals(List.of(summary), summaries);
+    }
+    
+    @Test
+    void shouldGetOrdersPageWithCursor() {
+        Order order2 = Order.builder()
+                .id("2")
+                .orderLineItems(new ArrayList<>())
+                .build();
+        
+        when(orderRepository.findAllBy(any(Pageable.class))).thenReturn(List.of(order, order2));
+        
+        OrderPageResponse page = orderService.getOrdersPage(null, 1);
+        
+        assertEquals(1, page.getItems().size());
+        assertEquals("1", page.getItems().get(0).getId());
+        assertEquals("1", page.getNextCursor());
+    }
+    
+    @Test
+    void shouldGetLastOrdersPageAfterCursor() {
+        when(orderRepository.findByIdGreaterThan(eq(new ObjectId("65f1a0c2e4b0a1b2c3d4e5f6")), any(Pageable.class))).thenReturn(List.of(order));
+        
+        OrderPageResponse page = orderService.getOrdersPage("65f1a0c2e4b0a1b2c3d4e5f6", 1);
+        
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+    
+    @Test
+    void shouldStreamAllOrders() {
+        when(orderRepository.streamAllBy()).thenReturn(Stream.of(order));
+        List<OrderResponse> streamed = new ArrayList<>();
+        
+        orderService.streamAllOrders(streamed::add);
+        
+        assertEquals(1, streamed.size());
+        assertEquals("john@example.com", streamed.get(0).getCustomerEmail());
+    }
 }
\ No newline at end of file
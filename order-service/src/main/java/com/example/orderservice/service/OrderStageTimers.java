@@ -0,0 +1,109 @@
+package com.example.orderservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times the stages of order creation as {@code order.create.stage}, tagged with the stage, its outcome and the
+ * order's size as a bucket of line item counts. Shared by the blocking and the reactive order paths.
+ */
+@Component
+public class OrderStageTimers {
+
+    public enum Stage {
+        /** Local checks before product-service is called, such as known shortages in the product replica. */
+        VALIDATION("validation"),
+        /** The product-service round trip that checks and takes the stock and returns the products. */
+        RESERVATION("reservation"),
+        /** Building the order and its total from the reserved products. */
+        PRICING("pricing"),
+        /** Saving the order together with its change event. */
+        PERSISTENCE("persistence");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    // Upper bounds of the line item buckets; larger orders go into the last one
+    private static final int[] BUCKET_LIMITS = {1, 5, 20, 50};
+    private static final String[] BUCKETS = {"1", "2-5", "6-20", "21-50", "51+"};
+    private static final String[] OUTCOMES = {"success", "error"};
+    private static final int SUCCESS = 0;
+    private static final int ERROR = 1;
+
+    private final MeterRegistry meterRegistry;
+    // Filled on first use, so only combinations that occur are exported
+    private final Timer[][][] timers = new Timer[Stage.values().length][BUCKETS.length][OUTCOMES.length];
+
+    public OrderStageTimers(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T time(Stage stage, int lineItems, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            T result = work.get();
+            record(stage, lineItems, SUCCESS, start);
+            return result;
+        } catch (RuntimeException e) {
+            record(stage, lineItems, ERROR, start);
+            throw e;
+        }
+    }
+
+    public void time(Stage stage, int lineItems, Runnable work) {
+        time(stage, lineItems, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Times the stage from subscription until the {@link Mono} completes, with or without a value, or fails.
+     */
+    public <T> Mono<T> time(Stage stage, int lineItems, Mono<T> work) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return work
+                    .doOnSuccess(value -> record(stage, lineItems, SUCCESS, start))
+                    .doOnError(e -> record(stage, lineItems, ERROR, start));
+        });
+    }
+
+    static String lineItemsBucket(int lineItems) {
+        return BUCKETS[bucketIndex(lineItems)];
+    }
+
+    private static int bucketIndex(int lineItems) {
+        for (int i = 0; i < BUCKET_LIMITS.length; i++) {
+            if (lineItems <= BUCKET_LIMITS[i]) {
+                return i;
+            }
+        }
+        return BUCKETS.length - 1;
+    }
+
+    private void record(Stage stage, int lineItems, int outcome, long start) {
+        int bucket = bucketIndex(lineItems);
+        Timer timer = timers[stage.ordinal()][bucket][outcome];
+        if (timer == null) {
+            // Registering is idempotent, so a race only registers the same timer twice
+            timer = Timer.builder("order.create.stage")
+                    .description("Time spent in each stage of creating an order")
+                    .tag("stage", stage.tag)
+                    .tag("items", BUCKETS[bucket])
+                    .tag("outcome", OUTCOMES[outcome])
+                    .register(meterRegistry);
+            timers[stage.ordinal()][bucket][outcome] = timer;
+        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.service.OrderStageTimers.Stage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderStageTimersTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderStageTimers stageTimers = new OrderStageTimers(meterRegistry);
+
+    private Timer timer(String stage, String items, String outcome) {
+        return meterRegistry.find("order.create.stage")
+                .tag("stage", stage)
+                .tag("items", items)
+                .tag("outcome", outcome)
+                .timer();
+    }
+
+    @Test
+    void shouldTimeStageByLineItemBucket() {
+        assertEquals("total", stageTimers.time(Stage.PRICING, 7, () -> "total"));
+        stageTimers.time(Stage.VALIDATION, 1, () -> { });
+
+        assertEquals(1, timer("pricing", "6-20", "success").count());
+        assertEquals(1, timer("validation", "1", "success").count());
+        assertNull(timer("pricing", "1", "success"));
+    }
+
+    @Test
+    void shouldRecordFailedStageAndRethrow() {
+        RuntimeException failure = new RuntimeException("save failed");
+
+        assertSame(failure, assertThrows(RuntimeException.class,
+                () -> stageTimers.time(Stage.PERSISTENCE, 3, () -> {
+                    throw failure;
+                })));
+
+        assertEquals(1, timer("persistence", "2-5", "error").count());
+        assertNull(timer("persistence", "2-5", "success"));
+    }
+
+    @Test
+    void shouldTimeMonoFromSubscription() {
+        Mono<String> reservation = stageTimers.time(Stage.RESERVATION, 60,
+                Mono.just("reserved").delayElement(Duration.ofMillis(50)));
+        assertNull(timer("reservation", "51+", "success"));
+
+        assertEquals("reserved", reservation.block());
+        stageTimers.time(Stage.VALIDATION, 60, Mono.empty()).block();
+
+        Timer reservationTimer = timer("reservation", "51+", "success");
+        assertEquals(1, reservationTimer.count());
+        assertTrue(reservationTimer.totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertEquals(1, timer("validation", "51+", "success").count());
+    }
+
+    @Test
+    void shouldBucketLineItemCounts() {
+        assertEquals("1", OrderStageTimers.lineItemsBucket(1));
+        assertEquals("2-5", OrderStageTimers.lineItemsBucket(5));
+        assertEquals("6-20", OrderStageTimers.lineItemsBucket(20));
+        assertEquals("21-50", OrderStageTimers.lineItemsBucket(21));
+        assertEquals("51+", OrderStageTimers.lineItemsBucket(1000));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.ProductReplica;
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.client.StockReservationRejectedException;
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderPageResponse;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderSummary;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.outbox.ReactiveOutbox;
+import com.example.orderservice.repository.ReactiveOrderRepository;
+import com.example.orderservice.service.OrderStageTimers.Stage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link OrderService}, used by the {@code reactive} profile. Order
+ * validation and pricing are shared with the blocking path; only I/O differs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveOrderService {
+
+    private final ReactiveOrderRepository orderRepository;
+    private final ProductServiceClient productServiceClient;
+    private final ProductReplica productReplica;
+    private final ReactiveOutbox outbox;
+    private final OrderStageTimers stageTimers;
+
+    public Mono<OrderResponse> createOrder(OrderRequest orderRequest) {
+        log.info("Creating order for customer: {}", orderRequest.getCustomerName());
+        
+        List<OrderLineItemDto> items = orderRequest.getOrderLineItems();
+        int lineItems = items.size();
+        // Keys the reservation as in OrderService.createOrder
+        String orderId = new ObjectId().toHexString();
+        
+        return stageTimers.time(Stage.VALIDATION, lineItems,
+                        Mono.fromRunnable(() -> OrderService.rejectKnownShortages(productReplica, items)))
+                .then(stageTimers.time(Stage.RESERVATION, lineItems,
+                                Mono.defer(() -> productServiceClient.reserveStock(orderId, items)))
+                        .flatMap(products -> stageTimers.time(Stage.PRICING, lineItems,
+                                Mono.fromCallable(() -> OrderService.buildOrder(orderRequest, products))))
+                        .doOnNext(order -> order.setId(orderId))
+                        .flatMap(order -> stageTimers.time(Stage.PERSISTENCE, lineItems,
+                                outbox.inTransaction(orderRepository.save(order)
+                                        .flatMap(savedOrder -> outbox.record(OutboxEvent.Type.ORDER_CREATED,
+                                                        OrderService.mapToOrderResponse(savedOrder))
+                                                .thenReturn(savedOrder)))))
+                        .onErrorResume(e -> !(e instanceof StockReservationRejectedException),
+                                e -> productServiceClient.releaseStock(orderId, items).then(Mono.error(e))))
+                .doOnNext(savedOrder -> log.info("Order created with ID: {}", savedOrder.getId()))
+                .map(OrderService::mapToOrderResponse);
+    }
+
+    public Flux<OrderResponse> getAllOrders() {
+        return orderRepository.findAll()
+                .map(OrderService::mapToOrderResponse);
+    }
+    
+    public Mono<OrderPageResponse> getOrdersPage(String after, int limit) {
+        Flux<Order> orders = after == null
+                ? orderRepository.findAllBy(OrderService.pageRequest(limit + 1))
+                : orderRepository.findByIdGreaterThan(OrderService.cursorOf(after), OrderService.pageRequest(limit + 1));
+        
+        return orders.collectList()
+                .map(page -> OrderService.toPage(page, limit));
+    }
+    
+    public Mono<OrderResponse> getOrderById(String id) {
+        return orderRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Order not found with id: " + id)))
+                .map(OrderService::mapToOrderResponse);
+    }
+    
+    public Flux<OrderResponse> getOrdersByCustomerEmail(String email) {
+        return orderRepository.findByCustomerEmail(email)
+                .map(OrderService::mapToOrderResponse);
+    }
+    
+    public Flux<OrderResponse> getOrdersByCustomerEmail(String email, int page, int limit) {
+        return orderRepository.findByCustomerEmailOrderByOrderDateDesc(email, PageRequest.of(page, limit))
+                .map(OrderService::mapToOrderResponse);
+    }
+    
+    public Flux<OrderSummary> getOrderSummariesByCustomerEmail(String email, int page, Integer limit) {
+        return orderRepository.findSummariesByCustomerEmailOrderByOrderDateDesc(email, OrderService.summaryPage(page, limit));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.example.orderservice.service;
+
+import com.example.common.outbox.OutboxRelay;
+import com.example.orderservice.client.ProductReplica;
+import com.example.orderservice.client.ProductServiceClient;
+import com.example.orderservice.client.ProductServiceUnavailableException;
+import com.example.orderservice.client.StockReservationRejectedException;
+import com.example.orderservice.dto.OrderLineItemDto;
+import com.example.orderservice.dto.OrderPageResponse;
+import com.example.orderservice.dto.OrderRequest;
+import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.ProductDto;
+import com.example.orderservice.dto.StockReservationFailure;
+import com.example.orderservice.model.Money;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.model.OrderStatus;
+import com.example.orderservice.model.OutboxEvent;
+import com.example.orderservice.outbox.ReactiveOutbox;
+import com.example.orderservice.repository.ReactiveOrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveOrderServiceTest {
+
+    @Mock
+    private ReactiveOrderRepository orderRepository;
+
+    @Mock
+    private ProductServiceClient productServiceClient;
+
+    @Mock
+    private ProductReplica productReplica;
+
+    private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+
+    @Spy
+    private ReactiveOutbox outbox = new ReactiveOutbox(mongoTemplate, null, mock(OutboxRelay.class));
+
+    @Spy
+    private OrderStageTimers stageTimers = new OrderStageTimers(new SimpleMeterRegistry());
+
+    @InjectMocks
+    private ReactiveOrderService orderService;
+
+    private OrderRequest orderRequest;
+    private ProductDto productDto;
+
+    @BeforeEach
+    void setUp() {
+        orderRequest = OrderRequest.builder()
+                .customerName("John Doe")
+                .customerEmail("john@example.com")
+                .orderLineItems(List.of(OrderLineItemDto.builder().productId("1").quantity(2).build()))
+                .build();
+
+        productDto = ProductDto.builder()
+                .id("1")
+                .name("Product 1")
+                .price(Money.of(new BigDecimal("10.99")))
+                .stock(5)
+                .build();
+
+        lenient().when(mongoTemplate.insert(any(OutboxEvent.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    void shouldCreateOrderWithoutBlockingClient() {
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems()))).thenReturn(Mono.just(Map.of("1", productDto)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId("1");
+            return Mono.just(order);
+        });
+
+        OrderResponse orderResponse = orderService.createOrder(orderRequest).block();
+
+        assertNotNull(orderResponse);
+        assertEquals("1", orderResponse.getId());
+        assertEquals(Money.of(new BigDecimal("21.98")), orderResponse.getTotalAmount());
+        assertEquals(OrderStatus.PLACED, orderResponse.getOrderStatus());
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(mongoTemplate).insert(event.capture());
+        assertEquals(OutboxEvent.Type.ORDER_CREATED, event.getValue().getType());
+        assertEquals("1", event.getValue().getOrderId());
+    }
+
+    @Test
+    void shouldFailWhenProductNotFound() {
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems())))
+                .thenReturn(Mono.error(new StockReservationRejectedException("1", StockReservationFailure.Reason.NOT_FOUND)));
+
+        Exception exception = assertThrows(RuntimeException.class, () -> orderService.createOrder(orderRequest).block());
+
+        assertTrue(exception.getMessage().contains("Product not found"));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(productServiceClient, never()).releaseStock(any(), anyList());
+    }
+
+    @Test
+    void shouldReleaseReservedStockWhenOrderCannotBeSaved() {
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems()))).thenReturn(Mono.just(Map.of("1", productDto)));
+        when(orderRepository.save(any(Order.class))).thenReturn(Mono.error(new RuntimeException("MongoDB unavailable")));
+        when(productServiceClient.releaseStock(anyString(), eq(orderRequest.getOrderLineItems()))).thenReturn(Mono.empty());
+
+        Exception exception = assertThrows(RuntimeException.class, () -> orderService.createOrder(orderRequest).block());
+
+        assertEquals("MongoDB unavailable", exception.getMessage());
+        verify(productServiceClient, times(1)).releaseStock(anyString(), eq(orderRequest.getOrderLineItems()));
+    }
+
+    @Test
+    void shouldReleaseStockUnderTheOrderIdWhenReservationTimesOut() {
+        when(productServiceClient.reserveStock(anyString(), eq(orderRequest.getOrderLineItems())))
+                .thenReturn(Mono.error(new ProductServiceUnavailableException("product-service is unavailable: timeout", null)));
+        when(productServiceClient.releaseStock(anyString(), eq(orderRequest.getOrderLineItems()))).thenReturn(Mono.empty());
+
+        assertThrows(ProductServiceUnavailableException.class, () -> orderService.createOrder(orderRequest).block());
+
+        ArgumentCaptor<String> reserved = ArgumentCaptor.forClass(String.class);
+        verify(productServiceClient).reserveStock(reserved.capture(), eq(orderRequest.getOrderLineItems()));
+        verify(productServiceClient).releaseStock(reserved.getValue(), orderRequest.getOrderLineItems());
+    }
+
+    @Test
+    void shouldFailWhenOrderNotFound() {
+        when(orderRepository.findById("999")).thenReturn(Mono.empty());
+
+        assertThrows(RuntimeException.class, () -> orderService.getOrderById("999").block());
+    }
+
+    @Test
+    void shouldGetOrdersPageAfterCursor() {
+        Order order2 = Order.builder().id("2").orderLineItems(new ArrayList<>()).build();
+        Order order3 = Order.builder().id("3").orderLineItems(new ArrayList<>()).build();
+        when(orderRepository.findByIdGreaterThan(eq(new ObjectId("65f1a0c2e4b0a1b2c3d4e5f6")), any(Pageable.class))).thenReturn(Flux.just(order2, order3));
+
+        OrderPageResponse page = orderService.getOrdersPage("65f1a0c2e4b0a1b2c3d4e5f6", 1).block();
+
+        assertNotNull(page);
+        assertEquals(1, page.getItems().size());
+        assertEquals("2", page.getItems().get(0).getId());
+        assertEquals("2", page.getNextCursor());
+    }
+}
\ No newline at end of file
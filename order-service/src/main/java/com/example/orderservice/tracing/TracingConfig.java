@@ -0,0 +1,61 @@
+package com.example.orderservice.tracing;
+
+import com.example.common.tracing.RecentTraces;
+import com.example.common.tracing.RequestMongoCommandListener;
+import com.example.common.tracing.TracesEndpoint;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.observation.ObservationRegistryCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Tracing beyond what Spring Boot instruments on its own. HTTP requests in and out, including the
+ * product-service calls of {@code ProductServiceClient}, are traced by Boot; here every MongoDB command sent by the
+ * blocking or the reactive driver becomes a span under the request that sent it. Actuator requests, such as
+ * Prometheus scrapes, are not traced.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry observationRegistry) {
+        return settings -> settings
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new RequestMongoCommandListener(
+                        new MongoObservationCommandListener(observationRegistry)));
+    }
+
+    @Bean
+    public ObservationRegistryCustomizer<ObservationRegistry> actuatorRequestFilter() {
+        return registry -> registry.observationConfig().observationPredicate(TracingConfig::isObserved);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.recent-traces.enabled", havingValue = "true", matchIfMissing = true)
+    public RecentTraces recentTraces(@Value("${tracing.recent-traces.max-size:1000}") int maxTraces) {
+        return new RecentTraces(maxTraces);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.recent-traces.enabled", havingValue = "true", matchIfMissing = true)
+    public TracesEndpoint tracesEndpoint(RecentTraces recentTraces) {
+        return new TracesEndpoint(recentTraces);
+    }
+
+    static boolean isObserved(String name, Observation.Context context) {
+        if (context instanceof org.springframework.http.server.observation.ServerRequestObservationContext servlet) {
+            return !servlet.getCarrier().getRequestURI().startsWith("/actuator");
+        }
+        if (context instanceof org.springframework.http.server.reactive.observation.ServerRequestObservationContext
+                reactive) {
+            return !reactive.getCarrier().getPath().value().startsWith("/actuator");
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.orderservice.tracing;
+
+import io.micrometer.observation.Observation;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TracingConfigTest {
+
+    @Test
+    void shouldNotObserveActuatorRequests() {
+        assertTrue(TracingConfig.isObserved("http.server.requests", new ServerRequestObservationContext(
+                new MockHttpServletRequest("POST", "/api/orders"), new MockHttpServletResponse())));
+        assertFalse(TracingConfig.isObserved("http.server.requests", new ServerRequestObservationContext(
+                new MockHttpServletRequest("GET", "/actuator/prometheus"), new MockHttpServletResponse())));
+        assertFalse(TracingConfig.isObserved("http.server.requests",
+                new org.springframework.http.server.reactive.observation.ServerRequestObservationContext(
+                        MockServerHttpRequest.get("/actuator/prometheus").build(), new MockServerHttpResponse(),
+                        new HashMap<>())));
+        assertTrue(TracingConfig.isObserved("http.client.requests", new Observation.Context()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.example.productservice.config;
+
+import com.example.productservice.service.ProductService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Read-through caches for product lookups. The per-product cache is configured through
+ * {@code spring.cache.caffeine.spec}; full catalogue snapshots are large and only the current version
+ * is ever read, so they get their own small cache.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> productCatalogCacheCustomizer(
+            @Value("${product-service.cache.catalog-ttl:1m}") Duration catalogTtl) {
+        return cacheManager -> cacheManager.registerCustomCache(ProductService.CATALOG_CACHE, Caffeine.newBuilder()
+                .maximumSize(2)
+                .expireAfterWrite(catalogTtl)
+                .recordStats()
+                .build());
+    }
+}
\ No newline at end of file
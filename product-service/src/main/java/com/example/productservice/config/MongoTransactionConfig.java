@@ -0,0 +1,21 @@
+package com.example.productservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Multi-document transactions, so that a product change and its outbox event are written together.
+ * MongoDB only supports them on a replica set or sharded cluster.
+ */
+@Configuration
+@ConditionalOnProperty(name = "outbox.transactional", havingValue = "true", matchIfMissing = true)
+public class MongoTransactionConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
\ No newline at end of file
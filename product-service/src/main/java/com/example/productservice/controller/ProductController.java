@@ -1,13 +1,40 @@
 package com.example.productservice.controller;
 
+import com.example.common.outbox.ServerSentEventSink;
+import com.example.productservice.dto.ProductBatchRequest;
+import com.example.productservice.dto.ProductImportResponse;
+import com.example.productservice.dto.ProductPageResponse;
 import com.example.productservice.dto.ProductRequest;
 import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.dto.ProductSummary;
+import com.example.productservice.dto.StockReservationFailure;
+import com.example.productservice.dto.StockReservationRequest;
+import com.example.productservice.model.OutboxEvent;
+import com.example.productservice.service.ProductImportService;
 import com.example.productservice.service.ProductService;
+import com.example.productservice.service.StockReservationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -16,6 +43,12 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ServerSentEventSink<OutboxEvent> serverSentEventSink;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${product-service.changes.heartbeat-interval:15s}")
+    private Duration heartbeatInterval;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -23,15 +56,100 @@ public class ProductController {
         productService.createProduct(productRequest);
     }
 
+    // Reads one product at a time; a top-level JSON array is unwrapped the same way as NDJSON lines
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ProductImportResponse> importProducts(InputStream body) throws IOException {
+        try (MappingIterator<ProductRequest> products = objectMapper.readerFor(ProductRequest.class).readValues(body)) {
+            ProductImportResponse response = productImportService.importProducts(products);
+            return ResponseEntity.status(response.getAbortedReason() == null ? HttpStatus.OK : HttpStatus.BAD_REQUEST)
+                    .body(response);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unreadable product import: " + e.getOriginalMessage());
+        }
+    }
+
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
     public List<ProductResponse> getAllProducts() {
         return productService.getAllProducts();
     }
     
+    @GetMapping(params = "view=summary")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ProductSummary> getProductSummaries() {
+        return productService.getProductSummaries();
+    }
+    
+    @GetMapping(params = "limit")
+    @ResponseStatus(HttpStatus.OK)
+    public ProductPageResponse getProductsPage(@RequestParam(required = false) String after,
+                                               @RequestParam @Min(1) @Max(1000) int limit) {
+        return productService.getProductsPage(after, limit);
+    }
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        ObjectWriter writer = objectMapper.writerFor(ProductResponse.class);
+        StreamingResponseBody body = outputStream -> productService.streamAllProducts(product -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(product));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    // Every product change from now on; a reconnecting client resumes after the Last-Event-ID it saw.
+    // A caught-up comment follows the changes it missed. Comment-only heartbeats let clients tell a quiet
+    // stream from a dead connection.
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProductResponse>> streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        Flux<ServerSentEvent<ProductResponse>> heartbeats = Flux.interval(heartbeatInterval)
+                .map(tick -> ServerSentEvent.<ProductResponse>builder().comment("heartbeat").build());
+        return serverSentEventSink.events(lastEventId,
+                        event -> ServerSentEvent.builder(event.getProduct())
+                                .id(String.valueOf(event.getSequence()))
+                                .event(event.getType().name())
+                                .build(),
+                        ServerSentEvent.<ProductResponse>builder().comment("caught-up").build())
+                .publish(changes -> Flux.merge(changes, heartbeats.takeUntilOther(changes.then())));
+    }
+    
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public ProductResponse getProductById(@PathVariable String id) {
         return productService.getProductById(id);
     }
+    
+    @PutMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public ProductResponse updateProduct(@PathVariable String id, @Valid @RequestBody ProductRequest productRequest) {
+        return productService.updateProduct(id, productRequest);
+    }
+    
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ProductResponse> getProductsByIds(@Valid @RequestBody ProductBatchRequest batchRequest) {
+        return productService.getProductsByIds(batchRequest.getIds());
+    }
+    
+    @PostMapping("/reservations")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ProductResponse> reserveStock(@Valid @RequestBody StockReservationRequest reservationRequest) {
+        return productService.reserveStock(reservationRequest.getReservationId(), reservationRequest.getItems());
+    }
+    
+    @PostMapping("/reservations/release")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseStock(@Valid @RequestBody StockReservationRequest reservationRequest) {
+        productService.releaseStock(reservationRequest.getReservationId(), reservationRequest.getItems());
+    }
+    
+    @ExceptionHandler(StockReservationException.class)
+    public ResponseEntity<StockReservationFailure> handleStockReservationException(StockReservationException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new StockReservationFailure(e.getProductId(), e.getReason()));
+    }
 }
\ No newline at end of file
@@ -1,8 +1,21 @@
 package com.example.productservice.controller;
 
+import com.example.common.outbox.ServerSentEventSink;
+import com.example.productservice.dto.ProductBatchRequest;
+import com.example.productservice.dto.ProductImportResponse;
+import com.example.productservice.dto.ProductPageResponse;
 import com.example.productservice.dto.ProductRequest;
 import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.dto.ProductSummary;
+import com.example.productservice.dto.StockReservationFailure;
+import com.example.productservice.dto.StockReservationItem;
+import com.example.productservice.dto.StockReservationRequest;
+import com.example.productservice.model.Money;
+import com.example.productservice.model.OutboxEvent;
+import com.example.productservice.service.ProductImportService;
+import com.example.productservice.service.ProductNotFoundException;
 import com.example.productservice.service.ProductService;
+import com.example.productservice.service.StockReservationException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,17 +23,33 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
@@ -32,6 +61,12 @@ public class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private ServerSentEventSink<OutboxEvent> serverSentEventSink;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -83,6 +118,53 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$[1].id").value("2"));
     }
     
+    @Test
+    void shouldImportNdjsonAndJsonArrayBodies() throws Exception {
+        List<String> imported = new ArrayList<>();
+        when(productImportService.importProducts(any())).thenAnswer(invocation -> {
+            Iterator<ProductRequest> products = invocation.getArgument(0);
+            products.forEachRemaining(product -> imported.add(product.getName()));
+            return ProductImportResponse.builder().received(2).inserted(2).build();
+        });
+        
+        mockMvc.perform(post("/api/products/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"A\",\"price\":1,\"stock\":1}\n{\"name\":\"B\",\"price\":2,\"stock\":2}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(2));
+        mockMvc.perform(post("/api/products/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\":\"C\",\"price\":1,\"stock\":1},{\"name\":\"D\",\"price\":2,\"stock\":2}]"))
+                .andExpect(status().isOk());
+        
+        assertEquals(List.of("A", "B", "C", "D"), imported);
+    }
+    
+    @Test
+    void shouldReportAnAbortedImportAsBadRequest() throws Exception {
+        when(productImportService.importProducts(any())).thenReturn(ProductImportResponse.builder()
+                .received(1).inserted(1).abortedReason("Unreadable product at index 1").build());
+        
+        mockMvc.perform(post("/api/products/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"A\",\"price\":1,\"stock\":1}\n{\"name\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.inserted").value(1));
+    }
+    
+    @Test
+    void shouldGetProductSummaries() throws Exception {
+        when(productService.getProductSummaries())
+                .thenReturn(List.of(new ProductSummary("1", "Product 1", Money.of(new BigDecimal("10.99")))));
+        
+        mockMvc.perform(get("/api/products").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Product 1"))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+        
+        verify(productService, never()).getAllProducts();
+    }
+    
     @Test
     void shouldGetProductById() throws Exception {
         ProductResponse productResponse = new ProductResponse("1", "Product 1", "Description 1", new BigDecimal("10.99"), 100);
@@ -94,4 +176,184 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.id").value("1"))
                 .andExpect(jsonPath("$.name").value("Product 1"));
     }
+    
+    @Test
+    void shouldReturnNotFoundForUnknownProduct() throws Exception {
+        when(productService.getProductById("999")).thenThrow(new ProductNotFoundException("999"));
+        
+        mockMvc.perform(get("/api/products/999"))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void shouldUpdateProduct() throws Exception {
+        ProductRequest productRequest = new ProductRequest("Product 1", "Description 1", new BigDecimal("12.99"), 100);
+        when(productService.updateProduct(eq("1"), any(ProductRequest.class)))
+                .thenReturn(new ProductResponse("1", "Product 1", "Description 1", new BigDecimal("12.99"), 100));
+        
+        mockMvc.perform(put("/api/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(12.99));
+    }
+    
+    @Test
+    void shouldReturnNotFoundWhenUpdatingUnknownProduct() throws Exception {
+        ProductRequest productRequest = new ProductRequest("Product 1", "Description 1", new BigDecimal("12.99"), 100);
+        when(productService.updateProduct(eq("999"), any(ProductRequest.class))).thenThrow(new ProductNotFoundException("999"));
+        
+        mockMvc.perform(put("/api/products/999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productRequest)))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void shouldGetProductsByIds() throws Exception {
+        ProductBatchRequest batchRequest = new ProductBatchRequest(List.of("1", "2"));
+        List<ProductResponse> productResponses = Arrays.asList(
+                new ProductResponse("1", "Product 1", "Description 1", new BigDecimal("10.99"), 100),
+                new ProductResponse("2", "Product 2", "Description 2", new BigDecimal("20.99"), 50)
+        );
+        
+        when(productService.getProductsByIds(List.of("1", "2"))).thenReturn(productResponses);
+        
+        mockMvc.perform(post("/api/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value("1"))
+                .andExpect(jsonPath("$[1].id").value("2"));
+    }
+    
+    @Test
+    void shouldReturnBadRequestWhenBatchIsEmpty() throws Exception {
+        ProductBatchRequest batchRequest = new ProductBatchRequest(List.of());
+        
+        mockMvc.perform(post("/api/products/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void shouldGetProductsPage() throws Exception {
+        ProductPageResponse page = new ProductPageResponse(List.of(
+                new ProductResponse("2", "Product 2", "Description 2", new BigDecimal("20.99"), 50)), "2");
+        
+        when(productService.getProductsPage("1", 1)).thenReturn(page);
+        
+        mockMvc.perform(get("/api/products").param("after", "1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value("2"))
+                .andExpect(jsonPath("$.nextCursor").value("2"));
+    }
+    
+    @Test
+    void shouldRejectOutOfRangePageLimit() throws Exception {
+        mockMvc.perform(get("/api/products").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStreamProductsAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ProductResponse> consumer = invocation.getArgument(0);
+            consumer.accept(new ProductResponse("1", "Product 1", "Description 1", new BigDecimal("10.99"), 100));
+            consumer.accept(new ProductResponse("2", "Product 2", "Description 2", new BigDecimal("20.99"), 50));
+            return null;
+        }).when(productService).streamAllProducts(any(Consumer.class));
+        
+        MvcResult result = mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        objectMapper.writeValueAsString(new ProductResponse("1", "Product 1", "Description 1", new BigDecimal("10.99"), 100)) + "\n"
+                                + objectMapper.writeValueAsString(new ProductResponse("2", "Product 2", "Description 2", new BigDecimal("20.99"), 50)) + "\n"));
+    }
+    
+    @Test
+    void shouldStreamProductChangesAfterTheLastEventId() throws Exception {
+        ProductResponse product = new ProductResponse("1", "Product 1", "Description 1", new BigDecimal("10.99"), 98);
+        OutboxEvent change = OutboxEvent.builder()
+                .sequence(5L)
+                .type(OutboxEvent.Type.PRODUCT_STOCK_CHANGED)
+                .productId("1")
+                .product(product)
+                .build();
+        when(serverSentEventSink.events(eq(4L), any(), any())).thenAnswer(invocation -> Flux.just(
+                invocation.<Function<OutboxEvent, ?>>getArgument(1).apply(change), invocation.getArgument(2)));
+        
+        MvcResult result = mockMvc.perform(get("/api/products/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "4"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string("id:5\nevent:PRODUCT_STOCK_CHANGED\ndata:"
+                        + objectMapper.writeValueAsString(product) + "\n\n:caught-up\n\n"));
+    }
+    
+    @Test
+    void shouldReserveStock() throws Exception {
+        StockReservationRequest reservationRequest = new StockReservationRequest(List.of(new StockReservationItem("1", 2)), "order-1");
+        
+        when(productService.reserveStock("order-1", reservationRequest.getItems())).thenReturn(List.of(
+                new ProductResponse("1", "Product 1", "Description 1", new BigDecimal("10.99"), 98)));
+        
+        mockMvc.perform(post("/api/products/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("1"))
+                .andExpect(jsonPath("$[0].stock").value(98));
+    }
+    
+    @Test
+    void shouldReturnConflictWhenStockIsInsufficient() throws Exception {
+        StockReservationRequest reservationRequest = new StockReservationRequest(List.of(new StockReservationItem("1", 200)), null);
+        
+        when(productService.reserveStock(null, reservationRequest.getItems()))
+                .thenThrow(new StockReservationException("1", StockReservationFailure.Reason.INSUFFICIENT_STOCK));
+        
+        mockMvc.perform(post("/api/products/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationRequest)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.productId").value("1"))
+                .andExpect(jsonPath("$.reason").value("INSUFFICIENT_STOCK"));
+    }
+    
+    @Test
+    void shouldReturnBadRequestWhenReservedQuantityIsNotPositive() throws Exception {
+        StockReservationRequest reservationRequest = new StockReservationRequest(List.of(new StockReservationItem("1", 0)), null);
+        
+        mockMvc.perform(post("/api/products/reservations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationRequest)))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    void shouldReleaseStock() throws Exception {
+        StockReservationRequest reservationRequest = new StockReservationRequest(List.of(new StockReservationItem("1", 2)), null);
+        
+        mockMvc.perform(post("/api/products/reservations/release")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservationRequest)))
+                .andExpect(status().isNoContent());
+        
+        verify(productService).releaseStock(null, reservationRequest.getItems());
+    }
 }
\ No newline at end of file
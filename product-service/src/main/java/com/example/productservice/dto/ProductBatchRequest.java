@@ -0,0 +1,23 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductBatchRequest {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    @NotEmpty(message = "At least one product ID is required")
+    @Size(max = MAX_BATCH_SIZE, message = "At most " + MAX_BATCH_SIZE + " product IDs can be requested at once")
+    private List<@NotBlank String> ids;
+}
\ No newline at end of file
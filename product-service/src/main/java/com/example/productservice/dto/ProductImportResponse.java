@@ -0,0 +1,42 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportResponse {
+    // Products read from the body, valid or not
+    private long received;
+    private long inserted;
+    private long failed;
+    private List<Batch> batches;
+    // Validation errors, only the first ProductImportService.MAX_ERRORS of them
+    private List<ItemError> errors;
+    // Why the body could not be read to the end; products before that point are imported
+    private String abortedReason;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Batch {
+        private int batch;
+        private int inserted;
+        private int failed;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemError {
+        // Zero-based position of the product in the body
+        private long index;
+        private String message;
+    }
+}
\ No newline at end of file
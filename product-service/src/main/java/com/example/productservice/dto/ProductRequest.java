@@ -1,5 +1,6 @@
 package com.example.productservice.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -22,6 +23,7 @@ public class ProductRequest {
     
     @NotNull(message = "Price is required")
     @Positive(message = "Price must be positive")
+    @Digits(integer = 15, fraction = 2, message = "Price must have at most 2 decimal places")
     private BigDecimal price;
     
     @NotNull(message = "Stock is required")
@@ -0,0 +1,20 @@
+package com.example.productservice.dto;
+
+import com.example.productservice.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * List view of a product. Also used as a repository projection, so only these fields are read from MongoDB.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSummary {
+    private String id;
+    private String name;
+    private Money price;
+}
\ No newline at end of file
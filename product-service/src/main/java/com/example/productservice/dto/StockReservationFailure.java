@@ -0,0 +1,24 @@
+package com.example.productservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of the 409 response when a reservation is rejected. Nothing has been reserved in that case.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservationFailure {
+
+    public enum Reason {
+        NOT_FOUND,
+        INSUFFICIENT_STOCK
+    }
+
+    private String productId;
+    private Reason reason;
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservationRequest {
+    public static final int MAX_ITEMS = 1000;
+
+    @NotEmpty(message = "At least one item is required")
+    @Size(max = MAX_ITEMS, message = "At most " + MAX_ITEMS + " items can be reserved at once")
+    private List<@Valid @NotNull StockReservationItem> items;
+
+    // Optional key, e.g. the order id: a reservation repeated with the same key is made only once, and
+    // releasing it gives back the stock it took, whatever items the release names
+    @Size(max = 255, message = "Reservation ID must be at most 255 characters")
+    private String reservationId;
+}
\ No newline at end of file
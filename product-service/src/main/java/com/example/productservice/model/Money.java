@@ -0,0 +1,45 @@
+package com.example.productservice.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+/**
+ * A price as a whole number of the currency's minor units, e.g. cents. MongoDB stores it as
+ * {@code {minorUnits: <int64>, currency: "USD"}} (see {@code MongoConversionsConfig}), so products sort by price
+ * numerically; JSON still carries prices as decimal numbers.
+ */
+public record Money(long minorUnits, Currency currency) {
+
+    // The catalogue is priced in a single currency
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    public Money {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+    }
+
+    /**
+     * The amount in {@link #DEFAULT_CURRENCY}. Fails with an {@link ArithmeticException} when the amount has more
+     * decimal places than the currency has minor units.
+     */
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(amount.movePointRight(currency.getDefaultFractionDigits()).longValueExact(), currency);
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
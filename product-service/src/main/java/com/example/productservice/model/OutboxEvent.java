@@ -0,0 +1,48 @@
+package com.example.productservice.model;
+
+import com.example.common.outbox.PublishableEvent;
+import com.example.productservice.dto.ProductResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A change to a product, recorded in the same transaction as the change itself and published afterwards
+ * by {@link com.example.common.outbox.OutboxRelay}.
+ */
+@Document(collection = "outbox_events")
+// Events still waiting for the relay, in the order they were recorded
+@CompoundIndex(name = "publishedAt_id", def = "{'publishedAt': 1, '_id': 1}")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEvent implements PublishableEvent {
+
+    public enum Type {
+        PRODUCT_CREATED,
+        PRODUCT_UPDATED,
+        PRODUCT_STOCK_CHANGED
+    }
+
+    @Id
+    private String id;
+    // Position in the published event stream; assigned by the relay, absent until the event is published
+    @Indexed(unique = true, sparse = true)
+    private Long sequence;
+    private Type type;
+    private String productId;
+    // The product as it was right after the change
+    private ProductResponse product;
+    private Instant occurredAt;
+    // TTL index: published events are kept for a week so that subscribers can catch up after a disconnect
+    @Indexed(name = "publishedAt_ttl", expireAfter = "7d")
+    private Instant publishedAt;
+}
\ No newline at end of file
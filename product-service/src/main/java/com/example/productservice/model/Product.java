@@ -7,8 +7,6 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.math.BigDecimal;
-
 @Document(collection = "products")
 @Data
 @AllArgsConstructor
@@ -19,6 +17,6 @@ public class Product {
     private String id;
     private String name;
     private String description;
-    private BigDecimal price;
+    private Money price;
     private Integer stock;
 }
\ No newline at end of file
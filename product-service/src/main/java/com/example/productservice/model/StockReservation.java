@@ -0,0 +1,38 @@
+package com.example.productservice.model;
+
+import com.example.productservice.dto.StockReservationItem;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A stock reservation made under a caller's key, so that a repeated request, e.g. a retry after a timeout,
+ * does not take the stock a second time. Inserted before the stock is taken; its unique id is the lock.
+ */
+@Document(collection = "stock_reservations")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StockReservation {
+
+    @Id
+    private String id;
+    private List<StockReservationItem> items;
+    // TTL index: keys are remembered for a week, far longer than a caller keeps retrying
+    @Indexed(name = "createdAt_ttl", expireAfter = "7d")
+    private Instant createdAt;
+    // Absent while the stock is being taken
+    private Instant completedAt;
+    // Set once the stock was given back, or once it may no longer be taken because the caller gave up on it
+    private Instant releasedAt;
+    // Number of partial releases so far, absent before the first; guards against applying two at once
+    private Integer partsReleased;
+}
@@ -0,0 +1,51 @@
+package com.example.productservice.outbox;
+
+import com.example.common.outbox.OutboxRelay;
+import com.example.common.outbox.TransactionalOutbox;
+import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.model.OutboxEvent;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Records change events next to the changes themselves. Writes that produce events run through
+ * {@link #inTransaction}, which commits the change and its events together when {@code outbox.transactional}
+ * is on, and call {@link #record} inside it.
+ */
+@Component
+public class Outbox extends TransactionalOutbox {
+
+    private final MongoTemplate mongoTemplate;
+
+    public Outbox(MongoTemplate mongoTemplate,
+                  @Nullable PlatformTransactionManager transactionManager,
+                  OutboxRelay<OutboxEvent> relay) {
+        super(transactionManager, relay);
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public void record(OutboxEvent.Type type, ProductResponse product) {
+        recordAll(type, List.of(product));
+    }
+
+    public void recordAll(OutboxEvent.Type type, List<ProductResponse> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<OutboxEvent> events = products.stream()
+                .map(product -> OutboxEvent.builder()
+                        .type(type)
+                        .productId(product.getId())
+                        .product(product)
+                        .occurredAt(now)
+                        .build())
+                .toList();
+        mongoTemplate.insert(events, OutboxEvent.class);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Multi-document writes sent to MongoDB as a single command.
+ */
+public interface ProductBulkRepository {
+
+    /**
+     * Inserts the products with one unordered bulk write, so a failing document does not stop the
+     * others. Returns the positions of the products that were not inserted.
+     */
+    Set<Integer> insertUnordered(List<Product> products);
+}
\ No newline at end of file
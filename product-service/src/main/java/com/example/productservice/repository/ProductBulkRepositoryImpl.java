@@ -0,0 +1,36 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBulkRepositoryImpl implements ProductBulkRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Set<Integer> insertUnordered(List<Product> products) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)
+                    .insert(products)
+                    .execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            log.warn("{} of {} products were not inserted, first error: {}",
+                    e.getErrors().size(), products.size(), e.getErrors().get(0).getMessage());
+            return e.getErrors().stream()
+                    .map(BulkWriteError::getIndex)
+                    .collect(Collectors.toSet());
+        }
+    }
+}
\ No newline at end of file
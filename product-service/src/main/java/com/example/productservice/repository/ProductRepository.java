@@ -1,7 +1,22 @@
 package com.example.productservice.repository;
 
+import com.example.productservice.dto.ProductSummary;
 import com.example.productservice.model.Product;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface ProductRepository extends MongoRepository<Product, String> {
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ProductRepository extends MongoRepository<Product, String>, ProductStockRepository, ProductBulkRepository {
+    List<Product> findAllBy(Pageable pageable);
+
+    List<ProductSummary> findSummariesBy();
+
+    List<Product> findByIdGreaterThan(ObjectId id, Pageable pageable);
+
+    @Meta(cursorBatchSize = 500)
+    Stream<Product> streamAllBy();
 }
\ No newline at end of file
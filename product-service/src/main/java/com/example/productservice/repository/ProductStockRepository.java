@@ -0,0 +1,22 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+
+import java.util.Optional;
+
+/**
+ * Single-document stock updates, applied atomically by MongoDB rather than read-modify-write.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Takes {@code quantity} units off the product's stock if at least that many are left.
+     * Returns the updated product, or empty if the product does not exist or is short on stock.
+     */
+    Optional<Product> decrementStock(String productId, int quantity);
+
+    /**
+     * Puts {@code quantity} units back. Returns the updated product, or empty if it does not exist.
+     */
+    Optional<Product> incrementStock(String productId, int quantity);
+}
\ No newline at end of file
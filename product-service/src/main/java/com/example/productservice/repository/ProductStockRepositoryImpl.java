@@ -0,0 +1,32 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Product> decrementStock(String productId, int quantity) {
+        // The stock condition and the $inc are evaluated together, so concurrent reservations can never oversell
+        Query query = Query.query(Criteria.where("id").is(productId).and("stock").gte(quantity));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, new Update().inc("stock", -quantity),
+                FindAndModifyOptions.options().returnNew(true), Product.class));
+    }
+
+    @Override
+    public Optional<Product> incrementStock(String productId, int quantity) {
+        Query query = Query.query(Criteria.where("id").is(productId));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, new Update().inc("stock", quantity),
+                FindAndModifyOptions.options().returnNew(true), Product.class));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.model.StockReservation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface StockReservationRepository extends MongoRepository<StockReservation, String>, StockReservationStateRepository {
+}
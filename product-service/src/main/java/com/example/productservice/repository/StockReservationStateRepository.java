@@ -0,0 +1,33 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.dto.StockReservationItem;
+import com.example.productservice.model.StockReservation;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Conditional state changes of a {@link StockReservation}, applied atomically by MongoDB, so that a release
+ * racing with the reservation it gives back is never lost.
+ */
+public interface StockReservationStateRepository {
+
+    /**
+     * Marks the reservation completed unless it was released in the meantime. Returns whether it was.
+     */
+    boolean complete(String id, Instant completedAt);
+
+    /**
+     * Marks the reservation released, inserting it if it was never made, so that it cannot be made later either.
+     * Returns the reservation as it was before, or empty if it did not exist or was already released.
+     */
+    Optional<StockReservation> release(String id, Instant releasedAt);
+
+    /**
+     * Replaces the items of a completed, unreleased reservation with {@code remaining}, provided no other part of it
+     * was released since {@code partsReleased} was read. Returns whether it was replaced, so that a concurrent release
+     * is never applied twice.
+     */
+    boolean releasePart(String id, Integer partsReleased, List<StockReservationItem> remaining);
+}
@@ -0,0 +1,54 @@
+package com.example.productservice.repository;
+
+import com.example.productservice.dto.StockReservationItem;
+import com.example.productservice.model.StockReservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class StockReservationStateRepositoryImpl implements StockReservationStateRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean complete(String id, Instant completedAt) {
+        return mongoTemplate.updateFirst(notReleased(id), new Update().set("completedAt", completedAt),
+                StockReservation.class).getModifiedCount() == 1;
+    }
+
+    @Override
+    public Optional<StockReservation> release(String id, Instant releasedAt) {
+        Update update = new Update()
+                .set("releasedAt", releasedAt)
+                // Only written when the reservation was never made; expires like one that was
+                .setOnInsert("createdAt", releasedAt);
+        try {
+            return Optional.ofNullable(mongoTemplate.findAndModify(notReleased(id), update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), StockReservation.class));
+        } catch (DuplicateKeyException e) {
+            // Already released: the query did not match, so the upsert tried to insert the existing id
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean releasePart(String id, Integer partsReleased, List<StockReservationItem> remaining) {
+        // A null count also matches a reservation none of which was released yet, where the field is absent
+        Query query = notReleased(id).addCriteria(Criteria.where("completedAt").ne(null).and("partsReleased").is(partsReleased));
+        return mongoTemplate.updateFirst(query, new Update().set("items", remaining).inc("partsReleased", 1),
+                StockReservation.class).getModifiedCount() == 1;
+    }
+
+    private static Query notReleased(String id) {
+        return Query.query(Criteria.where("id").is(id).and("releasedAt").is(null));
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.ProductImportResponse;
+import com.example.productservice.dto.ProductRequest;
+import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.model.OutboxEvent;
+import com.example.productservice.model.Product;
+import com.example.productservice.outbox.Outbox;
+import com.example.productservice.repository.ProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Imports products in batches of {@code product-service.import.batch-size}, each written with one unordered
+ * bulk insert. Products are pulled from the iterator as they are written, so only the current batch is held
+ * in memory however large the upload is. A batch and the change events of its products are written in one
+ * transaction.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    public static final int MAX_ERRORS = 100;
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final Outbox outbox;
+    private final Validator validator;
+    private final int batchSize;
+
+    public ProductImportService(ProductRepository productRepository,
+                                ProductService productService,
+                                Outbox outbox,
+                                Validator validator,
+                                @Value("${product-service.import.batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.outbox = outbox;
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    public ProductImportResponse importProducts(Iterator<ProductRequest> requests) {
+        List<ProductImportResponse.Batch> batches = new ArrayList<>();
+        List<ProductImportResponse.ItemError> errors = new ArrayList<>();
+        List<Product> pending = new ArrayList<>(batchSize);
+        int invalid = 0;
+        long received = 0;
+        String abortedReason = null;
+        
+        try {
+            while (true) {
+                ProductRequest request;
+                try {
+                    if (!requests.hasNext()) {
+                        break;
+                    }
+                    request = requests.next();
+                } catch (RuntimeException e) {
+                    // Malformed content or a dropped connection; keep what was read so far
+                    abortedReason = "Unreadable product at index " + received + ": " + e.getMessage();
+                    break;
+                }
+                
+                String violations = violationsOf(request);
+                if (violations == null) {
+                    pending.add(ProductService.toProduct(request));
+                } else {
+                    invalid++;
+                    if (errors.size() < MAX_ERRORS) {
+                        errors.add(new ProductImportResponse.ItemError(received, violations));
+                    }
+                }
+                
+                if (++received % batchSize == 0) {
+                    batches.add(writeBatch(batches.size(), pending, invalid));
+                    pending.clear();
+                    invalid = 0;
+                }
+            }
+            if (received % batchSize != 0) {
+                batches.add(writeBatch(batches.size(), pending, invalid));
+            }
+        } finally {
+            if (!batches.isEmpty()) {
+                productService.catalogChanged();
+            }
+        }
+        
+        long inserted = batches.stream().mapToLong(ProductImportResponse.Batch::getInserted).sum();
+        log.info("Imported {} of {} products in {} batches", inserted, received, batches.size());
+        
+        return ProductImportResponse.builder()
+                .received(received)
+                .inserted(inserted)
+                .failed(received - inserted)
+                .batches(batches)
+                .errors(errors)
+                .abortedReason(abortedReason)
+                .build();
+    }
+    
+    private ProductImportResponse.Batch writeBatch(int index, List<Product> products, int invalid) {
+        int inserted = products.isEmpty() ? 0 : outbox.inTransaction(() -> insert(products));
+        log.debug("Batch {}: inserted {} products, {} failed", index, inserted, invalid + products.size() - inserted);
+        return new ProductImportResponse.Batch(index, inserted, invalid + products.size() - inserted);
+    }
+    
+    private int insert(List<Product> products) {
+        // Assigned up front so that the events can name the products that were inserted
+        products.forEach(product -> product.setId(new ObjectId().toHexString()));
+        Set<Integer> notInserted = productRepository.insertUnordered(products);
+        List<ProductResponse> inserted = IntStream.range(0, products.size())
+                .filter(i -> !notInserted.contains(i))
+                .mapToObj(i -> ProductService.mapToProductResponse(products.get(i)))
+                .toList();
+        outbox.recordAll(OutboxEvent.Type.PRODUCT_CREATED, inserted);
+        return inserted.size();
+    }
+    
+    private String violationsOf(ProductRequest request) {
+        if (request == null) {
+            return "Product is required";
+        }
+        return validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.collectingAndThen(Collectors.joining(", "), joined -> joined.isEmpty() ? null : joined));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.example.productservice.service;
+
+import com.example.common.outbox.OutboxRelay;
+import com.example.productservice.dto.ProductImportResponse;
+import com.example.productservice.dto.ProductRequest;
+import com.example.productservice.model.OutboxEvent;
+import com.example.productservice.model.Product;
+import com.example.productservice.outbox.Outbox;
+import com.example.productservice.repository.ProductRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductImportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ProductImportService importService;
+
+    private final List<List<String>> writtenBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProductImportService(productRepository, productService,
+                new Outbox(mongoTemplate, null, mock(OutboxRelay.class)),
+                Validation.buildDefaultValidatorFactory().getValidator(), 2);
+    }
+
+    @Test
+    void shouldWriteValidProductsInBatches() {
+        recordWrites();
+        
+        ProductImportResponse response = importService.importProducts(List.of(
+                product("a"), product("b"), product("c"), invalidProduct(), product("e")).iterator());
+        
+        assertEquals(List.of(List.of("a", "b"), List.of("c"), List.of("e")), writtenBatches);
+        assertEquals(5, response.getReceived());
+        assertEquals(4, response.getInserted());
+        assertEquals(1, response.getFailed());
+        assertEquals(List.of(new ProductImportResponse.Batch(0, 2, 0),
+                        new ProductImportResponse.Batch(1, 1, 1),
+                        new ProductImportResponse.Batch(2, 1, 0)),
+                response.getBatches());
+        assertEquals(1, response.getErrors().size());
+        assertEquals(3, response.getErrors().get(0).getIndex());
+        assertEquals("Price must be positive, Product name is required", response.getErrors().get(0).getMessage());
+        assertNull(response.getAbortedReason());
+        verify(productService).catalogChanged();
+    }
+
+    @Test
+    void shouldCountProductsTheBulkWriteRejected() {
+        when(productRepository.insertUnordered(anyList())).thenReturn(Set.of(1));
+        
+        ProductImportResponse response = importService.importProducts(List.of(product("a"), product("b")).iterator());
+        
+        assertEquals(1, response.getInserted());
+        assertEquals(1, response.getFailed());
+        assertEquals(List.of(new ProductImportResponse.Batch(0, 1, 1)), response.getBatches());
+        assertEquals(List.of("a"), recordedEvents().stream().map(event -> event.getProduct().getName()).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRecordAnEventForEveryInsertedProduct() {
+        recordWrites();
+        
+        importService.importProducts(List.of(product("a"), product("b"), product("c")).iterator());
+        
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate, times(2)).insert(events.capture(), eq(OutboxEvent.class));
+        List<OutboxEvent> recorded = events.getAllValues().stream().flatMap(List::stream).toList();
+        assertEquals(List.of("a", "b", "c"), recorded.stream().map(event -> event.getProduct().getName()).toList());
+        assertTrue(recorded.stream().allMatch(event -> event.getType() == OutboxEvent.Type.PRODUCT_CREATED
+                && event.getProductId() != null && event.getProductId().equals(event.getProduct().getId())));
+    }
+
+    @Test
+    void shouldKeepImportedBatchesWhenTheBodyBreaksOff() {
+        recordWrites();
+        Iterator<ProductRequest> requests = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == 3) {
+                    throw new IllegalStateException("Unexpected end-of-input");
+                }
+                return true;
+            }
+
+            @Override
+            public ProductRequest next() {
+                return product(String.valueOf(next++));
+            }
+        };
+        
+        ProductImportResponse response = importService.importProducts(requests);
+        
+        assertEquals(List.of(List.of("0", "1"), List.of("2")), writtenBatches);
+        assertEquals(3, response.getInserted());
+        assertEquals("Unreadable product at index 3: Unexpected end-of-input", response.getAbortedReason());
+    }
+
+    @Test
+    void shouldCapReportedErrors() {
+        List<ProductRequest> requests = IntStream.range(0, ProductImportService.MAX_ERRORS + 10)
+                .mapToObj(i -> invalidProduct())
+                .toList();
+        
+        ProductImportResponse response = importService.importProducts(requests.iterator());
+        
+        assertEquals(ProductImportService.MAX_ERRORS + 10, response.getFailed());
+        assertEquals(ProductImportService.MAX_ERRORS, response.getErrors().size());
+        verify(productRepository, never()).insertUnordered(anyList());
+    }
+
+    @Test
+    void shouldNotTouchTheCatalogueForAnEmptyUpload() {
+        ProductImportResponse response = importService.importProducts(List.<ProductRequest>of().iterator());
+        
+        assertEquals(0, response.getReceived());
+        assertTrue(response.getBatches().isEmpty());
+        verify(productService, never()).catalogChanged();
+    }
+
+    private void recordWrites() {
+        when(productRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            writtenBatches.add(products.stream().map(Product::getName).toList());
+            return Set.of();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> recordedEvents() {
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(mongoTemplate).insert(events.capture(), eq(OutboxEvent.class));
+        return events.getValue();
+    }
+
+    private static ProductRequest product(String name) {
+        return new ProductRequest(name, "Description", new BigDecimal("1.50"), 10);
+    }
+
+    private static ProductRequest invalidProduct() {
+        return new ProductRequest("", "Description", new BigDecimal("-1"), 10);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.example.productservice.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ProductNotFoundException extends RuntimeException {
+
+    public ProductNotFoundException(String id) {
+        super("Product not found with id: " + id);
+    }
+}
\ No newline at end of file
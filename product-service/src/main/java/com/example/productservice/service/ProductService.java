@@ -1,56 +1,449 @@
 package com.example.productservice.service;
 
+import com.example.productservice.dto.ProductPageResponse;
 import com.example.productservice.dto.ProductRequest;
 import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.dto.ProductSummary;
+import com.example.productservice.dto.StockReservationFailure;
+import com.example.productservice.dto.StockReservationItem;
+import com.example.productservice.model.Money;
+import com.example.productservice.model.OutboxEvent;
 import com.example.productservice.model.Product;
+import com.example.productservice.outbox.Outbox;
+import com.example.productservice.model.StockReservation;
 import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.repository.StockReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductService {
 
+    public static final String PRODUCT_CACHE = "products";
+    public static final String CATALOG_CACHE = "productCatalog";
+
+    private static final int PRODUCT_VERSION_STRIPES = 1024;
+
     private final ProductRepository productRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final Outbox outbox;
+
+    // Bumped on every catalogue write, stock changes included. Snapshots are cached per version, so a getAllProducts load that
+    // raced with a write can only ever populate the entry of the version it started with.
+    private final AtomicLong catalogVersion = new AtomicLong();
 
+    // The same for single products, per stripe of product ids so that it stays bounded: a write moves the product's
+    // entries to a new key, and one loaded with stock read before the write can only land under a key no longer read
+    private final AtomicLongArray productVersions = new AtomicLongArray(PRODUCT_VERSION_STRIPES);
+
+    @CacheEvict(cacheNames = CATALOG_CACHE, allEntries = true)
     public void createProduct(ProductRequest productRequest) {
-        Product product = Product.builder()
+        Product product = toProduct(productRequest);
+
+        outbox.inTransaction(() -> {
+            productRepository.save(product);
+            outbox.record(OutboxEvent.Type.PRODUCT_CREATED, mapToProductResponse(product));
+            return product;
+        });
+        catalogVersion.incrementAndGet();
+        log.info("Product {} is saved", product.getId());
+    }
+
+    /**
+     * Replaces the product's name, description, price and stock with the request's. The stock given is the
+     * stock available from now on, so reservations made in the meantime are not subtracted from it.
+     */
+    @CacheEvict(cacheNames = CATALOG_CACHE, allEntries = true)
+    public ProductResponse updateProduct(String id, ProductRequest productRequest) {
+        Product product = toProduct(productRequest);
+        product.setId(id);
+
+        outbox.inTransaction(() -> {
+            if (!productRepository.existsById(id)) {
+                throw new ProductNotFoundException(id);
+            }
+            productRepository.save(product);
+            outbox.record(OutboxEvent.Type.PRODUCT_UPDATED, mapToProductResponse(product));
+            return product;
+        });
+        productChanged(id);
+        catalogVersion.incrementAndGet();
+        log.info("Product {} is updated", id);
+        return mapToProductResponse(product);
+    }
+
+    /**
+     * Drops the cached catalogue after products were written without going through this service.
+     */
+    @CacheEvict(cacheNames = CATALOG_CACHE, allEntries = true)
+    public void catalogChanged() {
+        catalogVersion.incrementAndGet();
+    }
+
+    static Product toProduct(ProductRequest productRequest) {
+        return Product.builder()
                 .name(productRequest.getName())
                 .description(productRequest.getDescription())
-                .price(productRequest.getPrice())
+                .price(Money.of(productRequest.getPrice()))
                 .stock(productRequest.getStock())
                 .build();
+    }
 
-        productRepository.save(product);
-        log.info("Product {} is saved", product.getId());
+    public long catalogVersion() {
+        return catalogVersion.get();
+    }
+
+    public String productCacheKey(String id) {
+        return id + ":" + productVersions.get(productStripe(id));
     }
 
+    @Cacheable(cacheNames = CATALOG_CACHE, key = "#root.target.catalogVersion()", sync = true)
     public List<ProductResponse> getAllProducts() {
-        List<Product> products = productRepository.findAll();
+        List<Product> products = cacheLoadTimer(CATALOG_CACHE).record(() -> productRepository.findAll());
         
         return products.stream()
-                .map(this::mapToProductResponse)
+                .map(ProductService::mapToProductResponse)
+                .collect(Collectors.toUnmodifiableList());
+    }
+    
+    public List<ProductSummary> getProductSummaries() {
+        return productRepository.findSummariesBy();
+    }
+    
+    /**
+     * Keyset pagination in {@code _id} order: each page is an index range scan starting after the
+     * previous page's last id, so the cost of a page does not grow with how deep into the collection it is.
+     */
+    public ProductPageResponse getProductsPage(String after, int limit) {
+        // Fetch one extra product to learn whether another page follows
+        Pageable pageable = PageRequest.of(0, limit + 1, Sort.by("id"));
+        List<Product> products = after == null
+                ? productRepository.findAllBy(pageable)
+                : productRepository.findByIdGreaterThan(cursorOf(after), pageable);
+        
+        boolean hasMore = products.size() > limit;
+        List<ProductResponse> items = products.stream()
+                .limit(limit)
+                .map(ProductService::mapToProductResponse)
                 .collect(Collectors.toList());
+        
+        return ProductPageResponse.builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
     }
     
+    // Ids are ObjectIds in MongoDB; a plain string would never compare greater than them
+    private static ObjectId cursorOf(String after) {
+        if (!ObjectId.isValid(after)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + after);
+        }
+        return new ObjectId(after);
+    }
+    
+    /**
+     * Hands every product to the consumer while iterating a MongoDB cursor, so the whole collection
+     * is never held in memory at once.
+     */
+    public void streamAllProducts(Consumer<ProductResponse> consumer) {
+        try (Stream<Product> products = productRepository.streamAllBy()) {
+            products.map(ProductService::mapToProductResponse).forEach(consumer);
+        }
+    }
+    
+    @Cacheable(cacheNames = PRODUCT_CACHE, key = "#root.target.productCacheKey(#id)", sync = true)
     public ProductResponse getProductById(String id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        Product product = cacheLoadTimer(PRODUCT_CACHE).record(() -> productRepository.findById(id))
+                .orElseThrow(() -> new ProductNotFoundException(id));
         
         return mapToProductResponse(product);
     }
     
-    private ProductResponse mapToProductResponse(Product product) {
+    /**
+     * Serves what it can from the product cache and loads only the misses, with a single query.
+     */
+    public List<ProductResponse> getProductsByIds(Collection<String> ids) {
+        Cache cache = cacheManager.getCache(PRODUCT_CACHE);
+        List<ProductResponse> productResponses = new ArrayList<>(ids.size());
+        // Keys are taken before the products are read, like getProductById's
+        Map<String, String> misses = new LinkedHashMap<>();
+        
+        for (String id : new LinkedHashSet<>(ids)) {
+            String key = productCacheKey(id);
+            ProductResponse cached = cache.get(key, ProductResponse.class);
+            if (cached != null) {
+                productResponses.add(cached);
+            } else {
+                misses.put(id, key);
+            }
+        }
+        
+        if (!misses.isEmpty()) {
+            List<String> missingIds = List.copyOf(misses.keySet());
+            List<Product> products = cacheLoadTimer(PRODUCT_CACHE).record(() -> productRepository.findAllById(missingIds));
+            for (Product product : products) {
+                ProductResponse productResponse = mapToProductResponse(product);
+                cache.put(misses.get(product.getId()), productResponse);
+                productResponses.add(productResponse);
+            }
+        }
+        
+        return productResponses;
+    }
+    
+    /**
+     * Reserves stock for all items or for none. Each product is decremented with a conditional update, so
+     * concurrent reservations cannot oversell; if any product is missing or short, the products already
+     * decremented by this call are released again and a {@link StockReservationException} is thrown.
+     * Returns the updated products.
+     */
+    public List<ProductResponse> reserveStock(List<StockReservationItem> items) {
+        Map<String, Integer> quantities = quantitiesByProduct(items);
+        Map<String, Integer> reserved = new LinkedHashMap<>();
+        List<ProductResponse> productResponses = new ArrayList<>(quantities.size());
+        
+        try {
+            for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+                Optional<Product> product = changeStock(() -> productRepository.decrementStock(entry.getKey(), entry.getValue()));
+                if (product.isEmpty()) {
+                    throw new StockReservationException(entry.getKey(), productRepository.existsById(entry.getKey())
+                            ? StockReservationFailure.Reason.INSUFFICIENT_STOCK
+                            : StockReservationFailure.Reason.NOT_FOUND);
+                }
+                reserved.put(entry.getKey(), entry.getValue());
+                productResponses.add(evictStockUpdate(product.get()));
+            }
+        } catch (RuntimeException e) {
+            release(reserved);
+            throw e;
+        }
+        
+        log.info("Reserved stock for {} products", reserved.size());
+        return productResponses;
+    }
+    
+    /**
+     * Like {@link #reserveStock(List)}, made at most once per {@code reservationId}, which may be {@code null} for
+     * none: a repeat of a reservation that was made returns the products as they are now without taking any more
+     * stock, and a repeat that arrives while the first is still being made fails with 503, to be retried later.
+     * A reservation released before it completes, or before it arrives, gives its stock back and fails with 410.
+     */
+    public List<ProductResponse> reserveStock(String reservationId, List<StockReservationItem> items) {
+        if (reservationId == null) {
+            return reserveStock(items);
+        }
+        StockReservation reservation = StockReservation.builder()
+                .id(reservationId)
+                .items(items)
+                .createdAt(Instant.now())
+                .build();
+        try {
+            stockReservationRepository.insert(reservation);
+        } catch (DuplicateKeyException e) {
+            return repeatedReservation(reservationId);
+        }
+
+        List<ProductResponse> productResponses;
+        try {
+            productResponses = reserveStock(items);
+        } catch (RuntimeException e) {
+            stockReservationRepository.deleteById(reservationId);
+            throw e;
+        }
+        boolean completed;
+        try {
+            completed = stockReservationRepository.complete(reservationId, Instant.now());
+        } catch (RuntimeException e) {
+            // Without its completion the reservation would answer 503 until it expires, so it is undone instead
+            release(quantitiesByProduct(items));
+            stockReservationRepository.deleteById(reservationId);
+            throw e;
+        }
+        if (!completed) {
+            // The caller timed out and released the reservation while the stock was being taken
+            release(quantitiesByProduct(items));
+            throw released(reservationId);
+        }
+        return productResponses;
+    }
+
+    private List<ProductResponse> repeatedReservation(String reservationId) {
+        StockReservation reservation = stockReservationRepository.findById(reservationId)
+                .filter(found -> found.getCompletedAt() != null || found.getReleasedAt() != null)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Reservation " + reservationId + " is still being made"));
+        if (reservation.getReleasedAt() != null) {
+            throw released(reservationId);
+        }
+        log.info("Reservation {} was already made", reservationId);
+        return productRepository.findAllById(quantitiesByProduct(reservation.getItems()).keySet()).stream()
+                .map(ProductService::mapToProductResponse)
+                .toList();
+    }
+
+    /**
+     * Returns previously reserved stock, e.g. when the order it was reserved for could not be placed.
+     */
+    public void releaseStock(List<StockReservationItem> items) {
+        release(quantitiesByProduct(items));
+    }
+
+    /**
+     * Like {@link #releaseStock(List)}; with a {@code reservationId}, gives back the given items out of the stock that
+     * reservation took, never more than it took and each unit once. Once nothing is left, or if the reservation is still
+     * being made, the whole reservation is released: one still being made gives its stock back itself when it
+     * completes, and one that has not arrived yet is refused when it does.
+     */
+    public void releaseStock(String reservationId, List<StockReservationItem> items) {
+        if (reservationId == null) {
+            releaseStock(items);
+            return;
+        }
+        while (true) {
+            StockReservation reservation = stockReservationRepository.findById(reservationId)
+                    .filter(found -> found.getCompletedAt() != null && found.getReleasedAt() == null)
+                    .orElse(null);
+            Map<String, Integer> reserved = reservation == null ? Map.of() : quantitiesByProduct(reservation.getItems());
+            Map<String, Integer> remaining = remainingAfter(reserved, quantitiesByProduct(items));
+            if (remaining.equals(reserved) && reservation != null) {
+                // None of the items is part of the reservation
+                return;
+            }
+            if (remaining.isEmpty()) {
+                stockReservationRepository.release(reservationId, Instant.now())
+                        .filter(released -> released.getCompletedAt() != null)
+                        .ifPresent(released -> release(quantitiesByProduct(released.getItems())));
+                return;
+            }
+            List<StockReservationItem> remainingItems = remaining.entrySet().stream()
+                    .map(entry -> new StockReservationItem(entry.getKey(), entry.getValue()))
+                    .toList();
+            // Fails if another release changed the reservation since it was read; it is then read again
+            if (stockReservationRepository.releasePart(reservationId, reservation.getPartsReleased(), remainingItems)) {
+                Map<String, Integer> given = new LinkedHashMap<>();
+                reserved.forEach((productId, quantity) -> {
+                    int released = quantity - remaining.getOrDefault(productId, 0);
+                    if (released > 0) {
+                        given.put(productId, released);
+                    }
+                });
+                release(given);
+                return;
+            }
+        }
+    }
+
+    // What is left of the reserved quantities after giving back the released ones, without products left at zero
+    private static Map<String, Integer> remainingAfter(Map<String, Integer> reserved, Map<String, Integer> released) {
+        Map<String, Integer> remaining = new LinkedHashMap<>();
+        reserved.forEach((productId, quantity) -> {
+            int left = quantity - Math.min(quantity, released.getOrDefault(productId, 0));
+            if (left > 0) {
+                remaining.put(productId, left);
+            }
+        });
+        return remaining;
+    }
+
+    private static ResponseStatusException released(String reservationId) {
+        return new ResponseStatusException(HttpStatus.GONE, "Reservation " + reservationId + " was released");
+    }
+    
+    private void release(Map<String, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> {
+            try {
+                changeStock(() -> productRepository.incrementStock(productId, quantity)).ifPresent(this::evictStockUpdate);
+            } catch (RuntimeException e) {
+                log.error("Failed to release {} units of product {}: {}", quantity, productId, e.getMessage());
+            }
+        });
+    }
+    
+    // Every stock change is recorded as an event, so subscribers can follow stock without polling
+    private Optional<Product> changeStock(Supplier<Optional<Product>> update) {
+        return outbox.inTransaction(() -> {
+            Optional<Product> product = update.get();
+            product.ifPresent(changed -> outbox.record(OutboxEvent.Type.PRODUCT_STOCK_CHANGED, mapToProductResponse(changed)));
+            return product;
+        });
+    }
+    
+    // Repeated products are merged so every product is updated exactly once
+    private static Map<String, Integer> quantitiesByProduct(List<StockReservationItem> items) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (StockReservationItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+    
+    // Evicted rather than overwritten: concurrent updates to the same product can finish in any order,
+    // and putting each result would let an older stock value win. The catalogue snapshot includes stock too,
+    // so it is dropped like after any other catalogue write.
+    private ProductResponse evictStockUpdate(Product product) {
+        productChanged(product.getId());
+        catalogVersion.incrementAndGet();
+        cacheManager.getCache(CATALOG_CACHE).clear();
+        return mapToProductResponse(product);
+    }
+    
+    private void productChanged(String id) {
+        cacheManager.getCache(PRODUCT_CACHE).evict(productCacheKey(id));
+        productVersions.incrementAndGet(productStripe(id));
+    }
+    
+    private static int productStripe(String id) {
+        return Math.floorMod(id.hashCode(), PRODUCT_VERSION_STRIPES);
+    }
+    
+    // Only invoked on cache misses, so this measures the latency of loading entries into the cache
+    private Timer cacheLoadTimer(String cacheName) {
+        return Timer.builder("product.cache.load")
+                .description("Time to load product cache entries from MongoDB")
+                .tag("cache", cacheName)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
+    static ProductResponse mapToProductResponse(Product product) {
         return ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
                 .description(product.getDescription())
-                .price(product.getPrice())
+                .price(product.getPrice() == null ? null : product.getPrice().toBigDecimal())
                 .stock(product.getStock())
                 .build();
     }
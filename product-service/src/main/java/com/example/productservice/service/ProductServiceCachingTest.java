@@ -0,0 +1,169 @@
+package com.example.productservice.service;
+
+import com.example.common.outbox.OutboxRelay;
+import com.example.productservice.dto.ProductRequest;
+import com.example.productservice.dto.StockReservationItem;
+import com.example.productservice.model.Money;
+import com.example.productservice.model.Product;
+import com.example.productservice.outbox.Outbox;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.repository.StockReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(ProductServiceCachingTest.Config.class)
+public class ProductServiceCachingTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(ProductService.class)
+    static class Config {
+        @Bean
+        ProductRepository productRepository() {
+            return mock(ProductRepository.class);
+        }
+
+        @Bean
+        StockReservationRepository stockReservationRepository() {
+            return mock(StockReservationRepository.class);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        Outbox outbox() {
+            return new Outbox(mock(MongoTemplate.class), null, mock(OutboxRelay.class));
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(ProductService.PRODUCT_CACHE, ProductService.CATALOG_CACHE);
+        }
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Product product = Product.builder()
+            .id("1")
+            .name("Test Product")
+            .price(Money.of(new BigDecimal("10.99")))
+            .stock(100)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        reset(productRepository);
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        when(productRepository.findById("1")).thenReturn(Optional.of(product));
+        long loads = meterRegistry.timer("product.cache.load", "cache", ProductService.PRODUCT_CACHE).count();
+
+        productService.getProductById("1");
+        productService.getProductById("1");
+
+        verify(productRepository, times(1)).findById("1");
+        assertEquals(loads + 1, meterRegistry.timer("product.cache.load", "cache", ProductService.PRODUCT_CACHE).count());
+    }
+
+    @Test
+    void shouldNotCacheMissingProducts() {
+        when(productRepository.findById("999")).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> productService.getProductById("999"));
+        assertThrows(RuntimeException.class, () -> productService.getProductById("999"));
+
+        verify(productRepository, times(2)).findById("999");
+    }
+
+    @Test
+    void shouldReloadCatalogAfterWrite() {
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+
+        productService.getAllProducts();
+        productService.getAllProducts();
+        productService.createProduct(ProductRequest.builder()
+                .name("New Product")
+                .price(new BigDecimal("1.00"))
+                .stock(1)
+                .build());
+        List<?> catalog = productService.getAllProducts();
+
+        assertEquals(1, catalog.size());
+        verify(productRepository, times(2)).findAll();
+    }
+
+    @Test
+    void shouldReloadCatalogAfterStockChange() {
+        when(productRepository.findAll()).thenReturn(List.of(product));
+        when(productRepository.incrementStock("1", 2)).thenReturn(Optional.of(product));
+
+        productService.getAllProducts();
+        productService.releaseStock(List.of(new StockReservationItem("1", 2)));
+        productService.getAllProducts();
+
+        verify(productRepository, times(2)).findAll();
+    }
+
+    @Test
+    void shouldEvictUpdatedProduct() {
+        when(productRepository.findById("1")).thenReturn(Optional.of(product));
+        when(productRepository.existsById("1")).thenReturn(true);
+
+        productService.getProductById("1");
+        clearInvocations(productRepository);
+        productService.updateProduct("1", ProductRequest.builder()
+                .name("Renamed Product")
+                .price(new BigDecimal("10.99"))
+                .stock(100)
+                .build());
+        productService.getProductById("1");
+
+        verify(productRepository).findById("1");
+    }
+
+    @Test
+    void shouldReloadProductAfterStockChange() {
+        when(productRepository.findById("1")).thenReturn(Optional.of(product));
+        when(productRepository.incrementStock("1", 2)).thenReturn(Optional.of(product));
+
+        productService.getProductById("1");
+        clearInvocations(productRepository);
+        productService.releaseStock(List.of(new StockReservationItem("1", 2)));
+        productService.getProductById("1");
+
+        verify(productRepository).findById("1");
+    }
+}
\ No newline at end of file
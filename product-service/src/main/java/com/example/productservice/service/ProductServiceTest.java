@@ -1,24 +1,52 @@
 package com.example.productservice.service;
 
+import com.example.common.outbox.OutboxRelay;
+import com.example.productservice.dto.ProductPageResponse;
 import com.example.productservice.dto.ProductRequest;
 import com.example.productservice.dto.ProductResponse;
+import com.example.productservice.dto.ProductSummary;
+import com.example.productservice.dto.StockReservationFailure;
+import com.example.productservice.dto.StockReservationItem;
+import com.example.productservice.model.Money;
+import com.example.productservice.model.OutboxEvent;
 import com.example.productservice.model.Product;
+import com.example.productservice.model.StockReservation;
+import com.example.productservice.outbox.Outbox;
 import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.repository.StockReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +55,18 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(ProductService.PRODUCT_CACHE, ProductService.CATALOG_CACHE);
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private Outbox outbox = new Outbox(mock(MongoTemplate.class), null, mock(OutboxRelay.class));
+
     @InjectMocks
     private ProductService productService;
 
@@ -46,7 +86,7 @@ public class ProductServiceTest {
                 .id("1")
                 .name("Test Product")
                 .description("Test Description")
-                .price(new BigDecimal("10.99"))
+                .price(Money.of(new BigDecimal("10.99")))
                 .stock(100)
                 .build();
     }
@@ -58,15 +98,46 @@ public class ProductServiceTest {
         productService.createProduct(productRequest);
 
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(outbox).record(eq(OutboxEvent.Type.PRODUCT_CREATED), argThat(created -> created.getName().equals("Test Product")));
     }
 
+    @Test
+    void shouldUpdateProduct() {
+        when(productRepository.existsById("1")).thenReturn(true);
+        productRequest.setPrice(new BigDecimal("12.99"));
+
+        ProductResponse productResponse = productService.updateProduct("1", productRequest);
+
+        assertEquals(new BigDecimal("12.99"), productResponse.getPrice());
+        verify(productRepository).save(argThat(updated -> updated.getId().equals("1") && updated.getStock() == 100));
+        verify(outbox).record(eq(OutboxEvent.Type.PRODUCT_UPDATED), eq(productResponse));
+    }
+
+    @Test
+    void shouldNotUpdateUnknownProduct() {
+        when(productRepository.existsById("1")).thenReturn(false);
+
+        assertThrows(ProductNotFoundException.class, () -> productService.updateProduct("1", productRequest));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(outbox, never()).record(any(), any());
+    }
+
+    @Test
+    void shouldGetProductSummariesFromProjection() {
+        ProductSummary summary = new ProductSummary("1", "Test Product", Money.of(new BigDecimal("10.99")));
+        when(productRepository.findSummariesBy()).thenReturn(List.of(summary));
+        
+        assertEquals(List.of(summary), productService.getProductSummaries());
+        verify(productRepository, never()).findAll();
+    }
+    
     @Test
     void shouldGetAllProducts() {
         Product product2 = Product.builder()
                 .id("2")
                 .name("Test Product 2")
                 .description("Test Description 2")
-                .price(new BigDecimal("20.99"))
+                .price(Money.of(new BigDecimal("20.99")))
                 .stock(50)
                 .build();
 
@@ -93,8 +164,283 @@ public class ProductServiceTest {
     void shouldThrowExceptionWhenProductNotFound() {
         when(productRepository.findById("999")).thenReturn(Optional.empty());
         
-        assertThrows(RuntimeException.class, () -> {
+        assertThrows(ProductNotFoundException.class, () -> {
             productService.getProductById("999");
         });
     }
-}
\ No newline at end of file
+    
+    @Test
+    void shouldGetProductsByIds() {
+        Product product2 = Product.builder()
+                .id("2")
+                .name("Test Product 2")
+                .description("Test Description 2")
+                .price(Money.of(new BigDecimal("20.99")))
+                .stock(50)
+                .build();
+        
+        when(productRepository.findAllById(List.of("1", "2", "999"))).thenReturn(Arrays.asList(product, product2));
+        
+        List<ProductResponse> productResponses = productService.getProductsByIds(List.of("1", "2", "999"));
+        
+        assertEquals(2, productResponses.size());
+        assertEquals("1", productResponses.get(0).getId());
+        assertEquals("2", productResponses.get(1).getId());
+        verify(productRepository, times(1)).findAllById(List.of("1", "2", "999"));
+    }
+    
+    @Test
+    void shouldLoadOnlyUncachedProductsInBatch() {
+        Product product2 = Product.builder()
+                .id("2")
+                .name("Test Product 2")
+                .price(Money.of(new BigDecimal("20.99")))
+                .stock(50)
+                .build();
+        
+        when(productRepository.findAllById(List.of("1"))).thenReturn(List.of(product));
+        when(productRepository.findAllById(List.of("2"))).thenReturn(List.of(product2));
+        
+        productService.getProductsByIds(List.of("1"));
+        List<ProductResponse> productResponses = productService.getProductsByIds(List.of("1", "2", "1"));
+        
+        assertEquals(2, productResponses.size());
+        assertEquals("1", productResponses.get(0).getId());
+        assertEquals("2", productResponses.get(1).getId());
+        verify(productRepository, times(1)).findAllById(List.of("1"));
+        verify(productRepository, times(1)).findAllById(List.of("2"));
+    }
+    
+    @Test
+    void shouldNotCacheProductReadBeforeStockChange() {
+        Product restocked = Product.builder().id("1").name("Test Product").price(Money.of(new BigDecimal("10.99"))).stock(102).build();
+        when(productRepository.incrementStock("1", 2)).thenReturn(Optional.of(restocked));
+        when(productRepository.findAllById(List.of("1")))
+                .thenAnswer(invocation -> {
+                    // The stock changes after the load read the product
+                    productService.releaseStock(List.of(new StockReservationItem("1", 2)));
+                    return List.of(product);
+                })
+                .thenReturn(List.of(restocked));
+        
+        productService.getProductsByIds(List.of("1"));
+        List<ProductResponse> productResponses = productService.getProductsByIds(List.of("1"));
+        
+        assertEquals(102, productResponses.get(0).getStock());
+        verify(productRepository, times(2)).findAllById(List.of("1"));
+    }
+    
+    @Test
+    void shouldBumpCatalogVersionOnCreate() {
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+        long version = productService.catalogVersion();
+        
+        productService.createProduct(productRequest);
+        
+        assertEquals(version + 1, productService.catalogVersion());
+    }
+    
+    @Test
+    void shouldGetFirstProductsPageWithCursor() {
+        Product product2 = Product.builder().id("2").name("Test Product 2").build();
+        
+        when(productRepository.findAllBy(any(Pageable.class))).thenReturn(List.of(product, product2));
+        
+        ProductPageResponse page = productService.getProductsPage(null, 1);
+        
+        assertEquals(1, page.getItems().size());
+        assertEquals("1", page.getItems().get(0).getId());
+        assertEquals("1", page.getNextCursor());
+    }
+    
+    @Test
+    void shouldGetLastProductsPageAfterCursor() {
+        Product product2 = Product.builder().id("2").name("Test Product 2").build();
+        
+        when(productRepository.findByIdGreaterThan(eq(new ObjectId("65f1a0c2e4b0a1b2c3d4e5f6")), any(Pageable.class))).thenReturn(List.of(product2));
+        
+        ProductPageResponse page = productService.getProductsPage("65f1a0c2e4b0a1b2c3d4e5f6", 1);
+        
+        assertEquals(1, page.getItems().size());
+        assertEquals("2", page.getItems().get(0).getId());
+        assertNull(page.getNextCursor());
+    }
+    
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(ResponseStatusException.class, () -> productService.getProductsPage("not-a-cursor", 1));
+        
+        verifyNoInteractions(productRepository);
+    }
+    
+    @Test
+    void shouldStreamAllProducts() {
+        when(productRepository.streamAllBy()).thenReturn(Stream.of(product));
+        List<ProductResponse> streamed = new ArrayList<>();
+        
+        productService.streamAllProducts(streamed::add);
+        
+        assertEquals(1, streamed.size());
+        assertEquals("Test Product", streamed.get(0).getName());
+    }
+    
+    @Test
+    void shouldReserveStockAndEvictCachedProduct() {
+        Product reserved = Product.builder().id("1").name("Test Product").price(Money.of(new BigDecimal("10.99"))).stock(97).build();
+        cacheManager.getCache(ProductService.PRODUCT_CACHE).put(productService.productCacheKey("1"), new ProductResponse("1", "Test Product", null, new BigDecimal("10.99"), 100));
+        when(productRepository.decrementStock("1", 3)).thenReturn(Optional.of(reserved));
+        
+        List<ProductResponse> productResponses = productService.reserveStock(List.of(
+                new StockReservationItem("1", 1), new StockReservationItem("1", 2)));
+        
+        assertEquals(1, productResponses.size());
+        assertEquals(97, productResponses.get(0).getStock());
+        assertNull(cacheManager.getCache(ProductService.PRODUCT_CACHE).get(productService.productCacheKey("1")));
+        verify(productRepository, times(1)).decrementStock("1", 3);
+        verify(outbox).record(eq(OutboxEvent.Type.PRODUCT_STOCK_CHANGED), argThat(changed -> changed.getStock() == 97));
+    }
+    
+    @Test
+    void shouldReleaseEarlierItemsWhenStockIsInsufficient() {
+        when(productRepository.decrementStock("1", 2)).thenReturn(Optional.of(product));
+        when(productRepository.decrementStock("2", 5)).thenReturn(Optional.empty());
+        when(productRepository.existsById("2")).thenReturn(true);
+        when(productRepository.incrementStock("1", 2)).thenReturn(Optional.of(product));
+        
+        StockReservationException exception = assertThrows(StockReservationException.class,
+                () -> productService.reserveStock(List.of(new StockReservationItem("1", 2), new StockReservationItem("2", 5))));
+        
+        assertEquals("2", exception.getProductId());
+        assertEquals(StockReservationFailure.Reason.INSUFFICIENT_STOCK, exception.getReason());
+        verify(productRepository, times(1)).incrementStock("1", 2);
+        verify(productRepository, never()).incrementStock(eq("2"), anyInt());
+    }
+    
+    @Test
+    void shouldRejectReservationForUnknownProduct() {
+        when(productRepository.decrementStock("999", 1)).thenReturn(Optional.empty());
+        when(productRepository.existsById("999")).thenReturn(false);
+        
+        StockReservationException exception = assertThrows(StockReservationException.class,
+                () -> productService.reserveStock(List.of(new StockReservationItem("999", 1))));
+        
+        assertEquals(StockReservationFailure.Reason.NOT_FOUND, exception.getReason());
+        verify(productRepository, never()).incrementStock(any(), anyInt());
+        verify(outbox, never()).record(any(), any());
+    }
+    
+    @Test
+    void shouldReleaseStock() {
+        when(productRepository.incrementStock("1", 2)).thenReturn(Optional.of(product));
+        
+        productService.releaseStock(List.of(new StockReservationItem("1", 2)));
+        
+        verify(productRepository, times(1)).incrementStock("1", 2);
+    }
+    
+    @Test
+    void shouldTakeStockOnceForRepeatedReservation() {
+        List<StockReservationItem> items = List.of(new StockReservationItem("1", 2));
+        when(productRepository.decrementStock("1", 2)).thenReturn(Optional.of(product));
+        when(stockReservationRepository.complete(eq("order-1"), any(Instant.class))).thenReturn(true);
+        
+        productService.reserveStock("order-1", items);
+        
+        ArgumentCaptor<StockReservation> inserted = ArgumentCaptor.forClass(StockReservation.class);
+        verify(stockReservationRepository).insert(inserted.capture());
+        assertEquals("order-1", inserted.getValue().getId());
+        inserted.getValue().setCompletedAt(Instant.now());
+        when(stockReservationRepository.insert(any(StockReservation.class))).thenThrow(new DuplicateKeyException("order-1"));
+        when(stockReservationRepository.findById("order-1")).thenReturn(Optional.of(inserted.getValue()));
+        when(productRepository.findAllById(Set.of("1"))).thenReturn(List.of(product));
+        
+        List<ProductResponse> productResponses = productService.reserveStock("order-1", items);
+        
+        assertEquals(1, productResponses.size());
+        assertEquals("1", productResponses.get(0).getId());
+        verify(productRepository, times(1)).decrementStock("1", 2);
+    }
+    
+    @Test
+    void shouldAnswerUnavailableWhileRepeatedReservationIsBeingMade() {
+        when(stockReservationRepository.insert(any(StockReservation.class))).thenThrow(new DuplicateKeyException("order-1"));
+        when(stockReservationRepository.findById("order-1")).thenReturn(Optional.of(StockReservation.builder()
+                .id("order-1").items(List.of(new StockReservationItem("1", 2))).createdAt(Instant.now()).build()));
+        
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> productService.reserveStock("order-1", List.of(new StockReservationItem("1", 2))));
+        
+        assertEquals(503, exception.getStatusCode().value());
+        verify(productRepository, never()).decrementStock(any(), anyInt());
+    }
+    
+    @Test
+    void shouldForgetReservationThatWasRejected() {
+        when(productRepository.decrementStock("999", 1)).thenReturn(Optional.empty());
+        
+        assertThrows(StockReservationException.class,
+                () -> productService.reserveStock("order-1", List.of(new StockReservationItem("999", 1))));
+        
+        verify(stockReservationRepository).deleteById("order-1");
+    }
+    
+    @Test
+    void shouldGiveStockBackWhenReservationWasReleasedWhileBeingMade() {
+        when(productRepository.decrementStock("1", 2)).thenReturn(Optional.of(product));
+        when(productRepository.incrementStock("1", 2)).thenReturn(Optional.of(product));
+        when(stockReservationRepository.complete(eq("order-1"), any(Instant.class))).thenReturn(false);
+        
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> productService.reserveStock("order-1", List.of(new StockReservationItem("1", 2))));
+        
+        assertEquals(410, exception.getStatusCode().value());
+        verify(productRepository).incrementStock("1", 2);
+    }
+    
+    @Test
+    void shouldRefuseReservationReleasedBeforeItArrived() {
+        when(stockReservationRepository.release(eq("order-1"), any(Instant.class))).thenReturn(Optional.empty());
+        productService.releaseStock("order-1", List.of(new StockReservationItem("1", 2)));
+        when(stockReservationRepository.insert(any(StockReservation.class))).thenThrow(new DuplicateKeyException("order-1"));
+        when(stockReservationRepository.findById("order-1")).thenReturn(Optional.of(StockReservation.builder()
+                .id("order-1").createdAt(Instant.now()).releasedAt(Instant.now()).build()));
+        
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> productService.reserveStock("order-1", List.of(new StockReservationItem("1", 2))));
+        
+        assertEquals(410, exception.getStatusCode().value());
+        verify(productRepository, never()).decrementStock(any(), anyInt());
+        verify(productRepository, never()).incrementStock(any(), anyInt());
+    }
+    
+    @Test
+    void shouldReleasePartOfReservation() {
+        when(stockReservationRepository.findById("bulk-1")).thenReturn(Optional.of(StockReservation.builder().id("bulk-1")
+                .items(List.of(new StockReservationItem("1", 3), new StockReservationItem("2", 1)))
+                .completedAt(Instant.now()).build()));
+        when(stockReservationRepository.releasePart("bulk-1", null,
+                List.of(new StockReservationItem("1", 2), new StockReservationItem("2", 1)))).thenReturn(true);
+        when(productRepository.incrementStock("1", 1)).thenReturn(Optional.of(product));
+        
+        productService.releaseStock("bulk-1", List.of(new StockReservationItem("1", 1), new StockReservationItem("3", 5)));
+        
+        verify(productRepository, times(1)).incrementStock("1", 1);
+        verify(productRepository, never()).incrementStock(eq("3"), anyInt());
+        verify(stockReservationRepository, never()).release(any(), any());
+    }
+    
+    @Test
+    void shouldReleaseStockOfReservationOnce() {
+        when(stockReservationRepository.release(eq("order-1"), any(Instant.class)))
+                .thenReturn(Optional.of(StockReservation.builder().id("order-1")
+                        .items(List.of(new StockReservationItem("1", 2))).completedAt(Instant.now()).build()))
+                .thenReturn(Optional.empty());
+        when(productRepository.incrementStock("1", 2)).thenReturn(Optional.of(product));
+        
+        productService.releaseStock("order-1", List.of(new StockReservationItem("1", 5)));
+        productService.releaseStock("order-1", List.of(new StockReservationItem("1", 5)));
+        
+        verify(productRepository, times(1)).incrementStock("1", 2);
+        verify(productRepository, never()).incrementStock("1", 5);
+    }
+}
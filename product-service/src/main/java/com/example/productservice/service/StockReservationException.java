@@ -0,0 +1,19 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.StockReservationFailure;
+import lombok.Getter;
+
+@Getter
+public class StockReservationException extends RuntimeException {
+
+    private final String productId;
+    private final StockReservationFailure.Reason reason;
+
+    public StockReservationException(String productId, StockReservationFailure.Reason reason) {
+        super((reason == StockReservationFailure.Reason.NOT_FOUND
+                ? "Product not found with id: "
+                : "Insufficient stock for product: ") + productId);
+        this.productId = productId;
+        this.reason = reason;
+    }
+}
\ No newline at end of file
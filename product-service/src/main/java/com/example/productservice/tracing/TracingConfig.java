@@ -0,0 +1,57 @@
+package com.example.productservice.tracing;
+
+import com.example.common.tracing.RecentTraces;
+import com.example.common.tracing.RequestMongoCommandListener;
+import com.example.common.tracing.TracesEndpoint;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.observation.ObservationRegistryCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+/**
+ * Tracing beyond what Spring Boot instruments on its own. HTTP requests are traced by Boot, continuing the trace of
+ * an order-service call from its {@code traceparent} header; here every MongoDB command becomes a span under the
+ * request that sent it. Actuator requests, such as Prometheus scrapes, are not traced.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry observationRegistry) {
+        return settings -> settings
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new RequestMongoCommandListener(
+                        new MongoObservationCommandListener(observationRegistry)));
+    }
+
+    @Bean
+    public ObservationRegistryCustomizer<ObservationRegistry> actuatorRequestFilter() {
+        return registry -> registry.observationConfig().observationPredicate(TracingConfig::isObserved);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.recent-traces.enabled", havingValue = "true", matchIfMissing = true)
+    public RecentTraces recentTraces(@Value("${tracing.recent-traces.max-size:1000}") int maxTraces) {
+        return new RecentTraces(maxTraces);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.recent-traces.enabled", havingValue = "true", matchIfMissing = true)
+    public TracesEndpoint tracesEndpoint(RecentTraces recentTraces) {
+        return new TracesEndpoint(recentTraces);
+    }
+
+    static boolean isObserved(String name, Observation.Context context) {
+        if (context instanceof ServerRequestObservationContext server) {
+            return !server.getCarrier().getRequestURI().startsWith("/actuator");
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares how many POST /api/orders requests order-service keeps in flight at once with Tomcat on
+ * platform threads versus virtual threads.
+ *
+ * <p>The benchmark starts a stand-in product-service whose reservation endpoint answers after a fixed delay,
+ * launches the order-service jar once per mode against it, and fires increasing numbers of concurrent
+ * orders. For each level it reports the peak number of orders that were simultaneously waiting on
+ * product-service (every order makes exactly one reservation call), the peak of order-service's own
+ * {@code http.server.requests.active} gauge, throughput and failures.
+ *
+ * <p>Run from the repository root with a Java 21 runtime and a MongoDB on localhost:27017:
+ * <pre>
+ * mvn -f order-service/pom.xml -Pjava21 package -DskipTests
+ * java tools/virtual-threads-benchmark/InFlightBenchmark.java order-service/target/order-service-0.0.1-SNAPSHOT-exec.jar
+ * </pre>
+ * Optional arguments after the jar: stub delay in ms (default 1000) and a comma separated list of
+ * concurrency levels (default 100,200,400,800,1600).
+ */
+public class InFlightBenchmark {
+
+    private static final int STUB_PORT = 18090;
+    private static final int ORDER_PORT = 18091;
+    private static final String MONGO_URI = "mongodb://localhost:27017/order-service-benchmark";
+
+    private static final AtomicInteger stubInFlight = new AtomicInteger();
+    private static final AtomicInteger stubPeak = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: java InFlightBenchmark.java <order-service.jar> [delayMs] [levels]");
+            System.exit(1);
+        }
+        Path jar = Path.of(args[0]);
+        long delayMs = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        int[] levels = java.util.Arrays.stream((args.length > 2 ? args[2] : "100,200,400,800,1600").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        HttpServer stub = startProductServiceStub(delayMs);
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newCachedThreadPool())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Map<String, List<String>> results = new LinkedHashMap<>();
+        try {
+            for (boolean virtual : new boolean[]{false, true}) {
+                String mode = virtual ? "virtual" : "platform";
+                Process orderService = startOrderService(jar, virtual);
+                try {
+                    awaitStartup(client);
+                    runLevel(client, 10, mode, null); // warm-up
+                    List<String> rows = new ArrayList<>();
+                    for (int level : levels) {
+                        runLevel(client, level, mode, rows);
+                    }
+                    results.put(mode, rows);
+                } finally {
+                    orderService.destroy();
+                    orderService.waitFor();
+                }
+            }
+        } finally {
+            stub.stop(0);
+        }
+
+        System.out.printf("%n%-9s %11s %14s %15s %10s %8s%n",
+                "mode", "concurrency", "peak-in-flight", "peak-active-req", "orders/s", "failed");
+        results.values().forEach(rows -> rows.forEach(System.out::println));
+    }
+
+    private static HttpServer startProductServiceStub(long delayMs) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", STUB_PORT), 4096);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/products/reservations", exchange -> {
+            stubPeak.accumulateAndGet(stubInFlight.incrementAndGet(), Math::max);
+            try {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(delayMs);
+                byte[] body = "[{\"id\":\"bench-1\",\"name\":\"Benchmark product\",\"price\":9.99,\"stock\":1000000}]"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stubInFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static Process startOrderService(Path jar, boolean virtual) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        return new ProcessBuilder(java,
+                "-jar", jar.toString(),
+                "--server.port=" + ORDER_PORT,
+                // Lift the WebClient pool limits so product-service calls are not the cap being measured
+                "--product-service.http.max-connections=10000",
+                "--product-service.http.pending-acquire-max-count=10000",
+                "--product-service.http.response-timeout=2m",
+                "--server.tomcat.accept-count=10000",
+                "--spring.data.mongodb.uri=" + MONGO_URI,
+                "--product-service.url=http://localhost:" + STUB_PORT,
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--logging.level.root=WARN")
+                .inheritIO()
+                .start();
+    }
+
+    private static void awaitStartup(HttpClient client) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + ORDER_PORT + "/actuator/health")).build();
+        for (int attempt = 0; attempt < 120; attempt++) {
+            try {
+                client.send(health, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("order-service did not start");
+    }
+
+    private static void runLevel(HttpClient client, int concurrency, String mode, List<String> rows) throws Exception {
+        stubPeak.set(0);
+        AtomicLong activePeak = new AtomicLong();
+        AtomicInteger failed = new AtomicInteger();
+
+        String order = "{\"customerName\":\"Bench\",\"customerEmail\":\"bench@example.com\","
+                + "\"orderLineItems\":[{\"productId\":\"bench-1\",\"quantity\":1}]}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + ORDER_PORT + "/api/orders"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(2))
+                .POST(HttpRequest.BodyPublishers.ofString(order))
+                .build();
+
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> sampleActiveRequests(client, activePeak));
+        long start = System.nanoTime();
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            calls[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() != 201) {
+                            failed.incrementAndGet();
+                        }
+                    });
+        }
+        CompletableFuture.allOf(calls).exceptionally(e -> null).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        sampler.interrupt();
+        sampler.join();
+
+        if (rows != null) {
+            rows.add(String.format("%-9s %11d %14d %15d %10.1f %8d",
+                    mode, concurrency, stubPeak.get(), activePeak.get(), concurrency / seconds, failed.get()));
+        }
+    }
+
+    private static void sampleActiveRequests(HttpClient client, AtomicLong peak) {
+        HttpRequest scrape = HttpRequest.newBuilder(URI.create("http://localhost:" + ORDER_PORT + "/actuator/prometheus")).build();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long active = 0;
+                for (String line : client.send(scrape, HttpResponse.BodyHandlers.ofLines()).body().toList()) {
+                    // The uri tag is not known yet while a request is active, so sum across all series
+                    if (line.startsWith("http_server_requests_active_seconds_active_count")) {
+                        active += (long) Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+                    }
+                }
+                peak.accumulateAndGet(active, Math::max);
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                // order-service may be saturated; keep sampling
+            }
+        }
+    }
+}
\ No newline at end of file